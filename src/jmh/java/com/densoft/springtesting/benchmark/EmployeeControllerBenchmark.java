@@ -0,0 +1,82 @@
+package com.densoft.springtesting.benchmark;
+
+import com.densoft.springtesting.controller.EmployeeController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+//request mapping, argument resolution and message conversion of EmployeeController, without a servlet container
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeControllerBenchmark {
+
+    private static final int EMPLOYEES = 1000;
+
+    private MockMvc mockMvc;
+
+    private String allEmployeesETag;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        EmployeeController employeeController = new EmployeeController(
+                EmployeeFixtures.serviceWith(EMPLOYEES),
+                //only creates with an Idempotency-Key use it, none of the benchmarks send one
+                (idempotencyKey, employee) -> {
+                    throw new UnsupportedOperationException(idempotencyKey);
+                },
+                objectMapper);
+        mockMvc = MockMvcBuilders.standaloneSetup(employeeController)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+        allEmployeesETag = mockMvc.perform(get("/api/employees")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Benchmark
+    public MvcResult getEmployeeById() throws Exception {
+        return mockMvc.perform(get("/api/employees/{id}", EMPLOYEES / 2)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getEmployeesPage() throws Exception {
+        return mockMvc.perform(get("/api/employees").param("after", "0").param("limit", "100")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getAllEmployees() throws Exception {
+        return mockMvc.perform(get("/api/employees")).andReturn();
+    }
+
+    //polling clients that already hold the current ETag
+    @Benchmark
+    public MvcResult getEmployeeByIdNotModified() throws Exception {
+        return mockMvc.perform(get("/api/employees/{id}", EMPLOYEES / 2).header(HttpHeaders.IF_NONE_MATCH, "\"0\"")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getAllEmployeesNotModified() throws Exception {
+        return mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH, allEmployeesETag)).andReturn();
+    }
+}
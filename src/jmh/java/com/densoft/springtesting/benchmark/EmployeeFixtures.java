@@ -0,0 +1,92 @@
+package com.densoft.springtesting.benchmark;
+
+import com.densoft.springtesting.event.EmployeeChangedEvent;
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeeChangePage;
+import com.densoft.springtesting.repository.EmployeeRepository;
+import com.densoft.springtesting.search.EmployeeSearchIndex;
+import com.densoft.springtesting.service.EmployeeChangeService;
+import com.densoft.springtesting.service.impl.EmployeeServiceImpl;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+final class EmployeeFixtures {
+
+    private EmployeeFixtures() {
+    }
+
+    static Employee employee(long sequence) {
+        return Employee.builder()
+                .firstName("first" + sequence)
+                .lastName("last" + sequence)
+                .email("employee" + sequence + "@gmail.com")
+                .build();
+    }
+
+    static List<Employee> employees(int size) {
+        List<Employee> employees = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Employee employee = employee(i);
+            employee.setId(i);
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    static EmployeeRepository repositoryWith(int size) {
+        EmployeeRepository employeeRepository = InMemoryEmployeeRepository.create();
+        for (int i = 1; i <= size; i++) {
+            employeeRepository.save(employee(i));
+        }
+        return employeeRepository;
+    }
+
+    //events go straight to the search index, as the after-commit listener does in the application
+    static EmployeeServiceImpl serviceWith(int size) {
+        EmployeeRepository employeeRepository = repositoryWith(size);
+        EmployeeSearchIndex employeeSearchIndex = new EmployeeSearchIndex(employeeRepository);
+        employeeSearchIndex.build();
+        return new EmployeeServiceImpl(employeeRepository, employeeSearchIndex,
+                event -> employeeSearchIndex.onEmployeeChanged((EmployeeChangedEvent) event), new NoChangeFeed(), new NoTransactionManager(),
+                new NoOpCacheManager());
+    }
+
+    //the employees do not change while a benchmark runs, the feed stays at offset 0
+    private static final class NoChangeFeed implements EmployeeChangeService {
+
+        @Override
+        public long getOffset() {
+            return 0;
+        }
+
+        @Override
+        public CompletableFuture<EmployeeChangePage> awaitChanges(long after, int limit, Duration timeout) {
+            return CompletableFuture.completedFuture(new EmployeeChangePage(List.of(), after));
+        }
+    }
+
+    //the in-memory repository has nothing to commit or roll back
+    private static final class NoTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.densoft.springtesting.benchmark;
+
+import com.densoft.springtesting.config.JdbcTuningProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Effect of the app.jdbc driver settings and the pool size on the statements behind {@code EmployeeRepository}:
+ * find by id, find by email and the batched insert of insertAll, from 16 threads sharing one Hikari pool. Needs a
+ * MySQL server with the employees table, the rows it adds are removed afterwards:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Djmh.args="EmployeeJdbcSettingsBenchmark -jvmArgs -Djdbc.url=jdbc:mysql://localhost:3306/spring_test?useSSL=false -jvmArgs -Djdbc.username=dennis -jvmArgs -Djdbc.password=password"
+ * </pre>
+ * Prepares per execute (Com_stmt_prepare) drop to zero with the statement cache, the batched insert is one
+ * multi-row INSERT per chunk with rewritten batches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class EmployeeJdbcSettingsBenchmark {
+
+    private static final String EMAIL_PREFIX = "jdbc-settings-";
+
+    private static final int ROWS = 10_000;
+
+    private static final int INSERT_BATCH_SIZE = 100;
+
+    private static final String FIND_BY_ID_SQL = "SELECT id, first_name, last_name, email, version FROM employees WHERE id = ?";
+
+    private static final String FIND_BY_EMAIL_SQL = "SELECT id, first_name, last_name, email, version FROM employees WHERE email = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO employees (first_name, last_name, email, version) VALUES (?, ?, ?, 0)";
+
+    @Param({"false", "true"})
+    private boolean statementCache;
+
+    @Param({"false", "true"})
+    private boolean rewriteBatchedStatements;
+
+    @Param({"4", "16"})
+    private int poolSize;
+
+    private HikariDataSource dataSource;
+
+    private long firstId;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        JdbcTuningProperties tuning = new JdbcTuningProperties();
+        tuning.getStatementCache().setEnabled(statementCache);
+        tuning.getStatementCache().setServerSide(statementCache);
+        tuning.setRewriteBatchedStatements(rewriteBatchedStatements);
+        //cursor fetch forces server side prepares on every statement, that would hide the cache
+        tuning.setCursorFetch(false);
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(System.getProperty("jdbc.url", "jdbc:mysql://localhost:3306/spring_test?useSSL=false"));
+        config.setUsername(System.getProperty("jdbc.username", "dennis"));
+        config.setPassword(System.getProperty("jdbc.password", "password"));
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+        tuning.applyTo(config);
+        dataSource = new HikariDataSource(config);
+
+        deleteBenchmarkRows();
+        insert(ROWS);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MIN(id) FROM employees WHERE email LIKE '" + EMAIL_PREFIX + "%'")) {
+            resultSet.next();
+            firstId = resultSet.getLong(1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        deleteBenchmarkRows();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public long findById() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(FIND_BY_ID_SQL)) {
+            statement.setLong(1, firstId + ThreadLocalRandom.current().nextInt(ROWS));
+            return readVersion(statement);
+        }
+    }
+
+    @Benchmark
+    public long findByEmail() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(FIND_BY_EMAIL_SQL)) {
+            statement.setString(1, EMAIL_PREFIX + ThreadLocalRandom.current().nextInt(ROWS) + "@gmail.com");
+            return readVersion(statement);
+        }
+    }
+
+    @Benchmark
+    public int[] insertBatch() throws SQLException {
+        return insert(INSERT_BATCH_SIZE);
+    }
+
+    private int[] insert(int rows) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            for (int i = 0; i < rows; i++) {
+                statement.setString(1, "first");
+                statement.setString(2, "last");
+                statement.setString(3, EMAIL_PREFIX + sequence.getAndIncrement() + "@gmail.com");
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        }
+    }
+
+    private static long readVersion(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong("version") : -1;
+        }
+    }
+
+    private void deleteBenchmarkRows() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM employees WHERE email LIKE '" + EMAIL_PREFIX + "%'");
+        }
+    }
+}
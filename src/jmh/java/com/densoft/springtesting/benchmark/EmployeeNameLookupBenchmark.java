@@ -0,0 +1,122 @@
+package com.densoft.springtesting.benchmark;
+
+import com.densoft.springtesting.model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the name lookup with and without the (last_name, first_name) index declared on {@link Employee}.
+ * Both tables hold the same rows in an in-memory H2 database, every name pair matches {@code rows / NAMES} employees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeNameLookupBenchmark {
+
+    private static final int NAMES = 50_000;
+
+    private static final String LOOKUP = "SELECT id, first_name, last_name, email, version FROM %s"
+            + " WHERE last_name = ? AND first_name = ? AND id > ? ORDER BY id LIMIT 101";
+
+    @Param({"1000000"})
+    private int rows;
+
+    private Connection connection;
+
+    private PreparedStatement scan;
+
+    private PreparedStatement indexed;
+
+    private int sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:name_lookup;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            for (String table : new String[]{"employees_scan", "employees_indexed"}) {
+                statement.execute("CREATE TABLE " + table + " (id BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                        + " first_name VARCHAR(255) NOT NULL, last_name VARCHAR(255) NOT NULL,"
+                        + " email VARCHAR(255) NOT NULL, version BIGINT NOT NULL)");
+            }
+            statement.execute("CREATE INDEX " + Employee.NAME_INDEX + " ON employees_indexed (last_name, first_name)");
+        }
+        load("employees_scan");
+        load("employees_indexed");
+        scan = connection.prepareStatement(String.format(LOOKUP, "employees_scan"));
+        indexed = connection.prepareStatement(String.format(LOOKUP, "employees_indexed"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void findByNameWithoutIndex(Blackhole blackhole) throws SQLException {
+        lookup(scan, blackhole);
+    }
+
+    @Benchmark
+    public void findByNameWithIndex(Blackhole blackhole) throws SQLException {
+        lookup(indexed, blackhole);
+    }
+
+    private void lookup(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        int name = sequence++ % NAMES;
+        statement.setString(1, "last" + name);
+        statement.setString(2, "first" + name % 20);
+        statement.setLong(3, 0);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getLong(1));
+                blackhole.consume(resultSet.getString(4));
+            }
+        }
+    }
+
+    private void load(String table) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (first_name, last_name, email, version) VALUES (?, ?, ?, 0)")) {
+            for (int i = 0; i < rows; i++) {
+                insert.setString(1, "first" + i % 20);
+                insert.setString(2, "last" + i % NAMES);
+                insert.setString(3, "employee" + i + "@gmail.com");
+                insert.addBatch();
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+}
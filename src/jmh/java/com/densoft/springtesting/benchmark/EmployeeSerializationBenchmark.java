@@ -0,0 +1,48 @@
+package com.densoft.springtesting.benchmark;
+
+import com.densoft.springtesting.model.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//serialization cost of the List<Employee> returned by GET /api/employees
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int employees;
+
+    private ObjectMapper objectMapper;
+
+    private List<Employee> employeeList;
+
+    @Setup
+    public void setUp() {
+        //same builder spring boot uses for the MVC message converter
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        employeeList = EmployeeFixtures.employees(employees);
+    }
+
+    @Benchmark
+    public byte[] writeEmployeeList() throws Exception {
+        return objectMapper.writeValueAsBytes(employeeList);
+    }
+}
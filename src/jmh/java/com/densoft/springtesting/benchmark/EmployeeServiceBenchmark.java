@@ -0,0 +1,86 @@
+package com.densoft.springtesting.benchmark;
+
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeePage;
+import com.densoft.springtesting.service.impl.EmployeeServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    private int employees;
+
+    private EmployeeServiceImpl employeeService;
+
+    private long sequence;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        employeeService = EmployeeFixtures.serviceWith(employees);
+        sequence = employees;
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeById() {
+        return employeeService.getEmployeeById(employees / 2);
+    }
+
+    @Benchmark
+    public List<Employee> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    @Benchmark
+    public EmployeePage getEmployeesPage() {
+        return employeeService.getEmployees(employees / 2, 100);
+    }
+
+    @Benchmark
+    public List<Employee> searchEmployees() {
+        return employeeService.searchEmployees("last" + employees / 2, 20);
+    }
+
+    @Benchmark
+    public void streamAllEmployees(Blackhole blackhole) {
+        employeeService.streamAllEmployees(blackhole::consume);
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(EmployeeFixtures.employee(++sequence));
+    }
+
+    @Benchmark
+    public Optional<Employee> updateEmployee() {
+        return employeeService.updateEmployee(employees / 2, EmployeeFixtures.employee(++sequence), null);
+    }
+
+    //a delete needs a row to remove, so every invocation creates the one it deletes. The delete alone costs about
+    //this minus saveEmployee
+    @Benchmark
+    public void saveAndDeleteEmployee() {
+        employeeService.deleteEmployee(employeeService.saveEmployee(EmployeeFixtures.employee(++sequence)).getId());
+    }
+}
@@ -0,0 +1,180 @@
+package com.densoft.springtesting.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Starts the application in fresh JVMs and reports the time from launch to the first answered
+ * {@code GET /api/employees/1} and the resident set size right after it, median over the runs. The instances run
+ * on an in-memory H2 database, so only the startup of the application itself is measured.
+ * <p>
+ * Compare the default setup with the prod profile:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.main=com.densoft.springtesting.benchmark.EmployeeStartupProbe \
+ *     -Dbenchmark.args="default 5"
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.main=com.densoft.springtesting.benchmark.EmployeeStartupProbe \
+ *     -Dbenchmark.args="prod 5"
+ * </pre>
+ * Further arguments are passed to the JVM. A single run with {@code -XX:ArchiveClassesAtExit=target/app.jsa} is the
+ * AppCDS training run, runs with {@code -XX:SharedArchiveFile=target/app.jsa} then start from the archive. CDS only
+ * takes classes from jars, so the class directories on the class path are packed into jars first and every run,
+ * with or without archive, starts from the same jars.
+ */
+public class EmployeeStartupProbe {
+
+    private static final String APPLICATION = "com.densoft.springtesting.SpringTestingApplication";
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private static final Path JAR_DIRECTORY = Path.of("target", "startup-probe");
+
+    public static void main(String[] args) throws Exception {
+        String profile = args.length > 0 ? args[0] : "default";
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        List<String> jvmOptions = args.length > 2 ? Arrays.asList(args).subList(2, args.length) : List.of();
+
+        String classPath = jarOnlyClassPath();
+        long[] startupMillis = new long[runs];
+        long[] rssKilobytes = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            long[] result = startOnce(profile, classPath, jvmOptions);
+            startupMillis[run] = result[0];
+            rssKilobytes[run] = result[1];
+            System.out.printf("run %d: first request after %d ms, rss %d MB%n", run + 1, result[0], result[1] / 1024);
+        }
+        Arrays.sort(startupMillis);
+        Arrays.sort(rssKilobytes);
+        System.out.printf("profile=%s runs=%d jvm options=%s%n", profile, runs, jvmOptions);
+        System.out.printf("median time to first request=%d ms, median rss=%d MB%n",
+                startupMillis[runs / 2], rssKilobytes[runs / 2] / 1024);
+        System.exit(0);
+    }
+
+    private static long[] startOnce(String profile, String classPath, List<String> jvmOptions) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-cp", classPath, APPLICATION,
+                "--spring.profiles.active=" + profile,
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:startup;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--logging.level.root=warn"));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(100)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/employees/1"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue() + ": " + command);
+                }
+                try {
+                    //any status counts, the instance is serving
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                    break;
+                } catch (IOException e) {
+                    if (System.nanoTime() > deadline) {
+                        throw new IllegalStateException("Application did not answer within " + STARTUP_TIMEOUT);
+                    }
+                    Thread.sleep(10);
+                }
+            }
+            long startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new long[]{startupMillis, rssKilobytes(process.pid())};
+        } finally {
+            //a normal shutdown, a dynamic CDS archive is only written when the JVM exits on its own
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static String jarOnlyClassPath() throws IOException {
+        Files.createDirectories(JAR_DIRECTORY);
+        List<String> entries = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            Path path = Path.of(entry);
+            if (Files.isDirectory(path)) {
+                Path jar = JAR_DIRECTORY.resolve(path.getFileName() + ".jar").toAbsolutePath();
+                packDirectory(path, jar);
+                entries.add(jar.toString());
+            } else {
+                entries.add(entry);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    //a CDS archive is rejected once a jar on the class path changed, so unchanged classes are not packed again
+    private static void packDirectory(Path directory, Path jar) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        if (Files.exists(jar)) {
+            FileTime packed = Files.getLastModifiedTime(jar);
+            boolean changed = false;
+            for (Path file : files) {
+                changed |= Files.getLastModifiedTime(file).compareTo(packed) > 0;
+            }
+            if (!changed) {
+                return;
+            }
+        }
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (Path file : files) {
+                out.putNextEntry(new JarEntry(directory.relativize(file).toString().replace(File.separatorChar, '/')));
+                Files.copy(file, out);
+                out.closeEntry();
+            }
+        }
+    }
+
+    //VmRSS from /proc, -1 where that is not available
+    private static long rssKilobytes(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return -1;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
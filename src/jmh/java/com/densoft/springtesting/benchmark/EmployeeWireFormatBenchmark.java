@@ -0,0 +1,89 @@
+package com.densoft.springtesting.benchmark;
+
+import com.densoft.springtesting.model.Employee;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+//cpu and bytes on the wire of GET /api/employees per negotiated format, with and without the server's gzip,
+//the sizes are printed once per trial as they do not change between iterations
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeWireFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"100", "10000", "100000"})
+    private int employees;
+
+    private ObjectMapper objectMapper;
+
+    private JavaType employeeListType;
+
+    private List<Employee> employeeList;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        //same builder and factories as MessageConverterConfig
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if ("smile".equals(format)) {
+            builder.factory(new SmileFactory());
+        } else if ("cbor".equals(format)) {
+            builder.factory(new CBORFactory());
+        }
+        objectMapper = builder.build();
+        employeeListType = objectMapper.getTypeFactory().constructCollectionType(List.class, Employee.class);
+        employeeList = EmployeeFixtures.employees(employees);
+        encoded = objectMapper.writeValueAsBytes(employeeList);
+        System.out.printf("%n%s, %d employees: %d bytes, %d bytes gzipped%n", format, employees, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return objectMapper.writeValueAsBytes(employeeList);
+    }
+
+    @Benchmark
+    public byte[] writeGzipped() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(employeeList));
+    }
+
+    @Benchmark
+    public List<Employee> read() throws IOException {
+        return objectMapper.readValue(encoded, employeeListType);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,148 @@
+package com.densoft.springtesting.benchmark;
+
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.repository.EmployeeRepository;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Map backed stand-in for {@link EmployeeRepository} so the service and controller
+ * benchmarks measure our own code rather than MySQL. Only the methods the service
+ * calls are implemented, anything else throws {@link UnsupportedOperationException}.
+ */
+public class InMemoryEmployeeRepository implements InvocationHandler {
+
+    private final ConcurrentSkipListMap<Long, Employee> employees = new ConcurrentSkipListMap<>();
+
+    private final Map<String, Long> idsByEmail = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    public static EmployeeRepository create() {
+        return (EmployeeRepository) Proxy.newProxyInstance(EmployeeRepository.class.getClassLoader(),
+                new Class<?>[]{EmployeeRepository.class}, new InMemoryEmployeeRepository());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "save":
+                return save((Employee) args[0]);
+            case "saveAll":
+                List<Employee> saved = new ArrayList<>();
+                ((Iterable<Employee>) args[0]).forEach(employee -> saved.add(save(employee)));
+                return saved;
+            case "insertAll":
+                ((List<Employee>) args[0]).forEach(this::save);
+                return null;
+            case "findById":
+                return Optional.ofNullable(employees.get((Long) args[0]));
+            case "findAllById":
+            case "loadAllById":
+                List<Employee> found = new ArrayList<>();
+                ((Iterable<Long>) args[0]).forEach(id -> Optional.ofNullable(employees.get(id)).ifPresent(found::add));
+                return found;
+            case "findByEmail":
+                return Optional.ofNullable(idsByEmail.get((String) args[0])).map(employees::get);
+            case "findByEmailIn":
+                return ((Collection<String>) args[0]).stream()
+                        .map(idsByEmail::get)
+                        .filter(id -> id != null)
+                        .map(employees::get)
+                        .collect(Collectors.toList());
+            case "findAll":
+                return new ArrayList<>(employees.values());
+            case "findByIdGreaterThanOrderByIdAsc":
+                return employees.tailMap((Long) args[0], false).values().stream()
+                        .limit(((Pageable) args[1]).getPageSize())
+                        .collect(Collectors.toList());
+            case "streamAll":
+                employees.values().forEach((Consumer<Employee>) args[0]);
+                return null;
+            case "findVersionById":
+                return Optional.ofNullable(employees.get((Long) args[0])).map(Employee::getVersion);
+            case "existsById":
+                return employees.containsKey((Long) args[0]);
+            case "count":
+                return (long) employees.size();
+            case "deleteById":
+                Employee removed = employees.remove((Long) args[0]);
+                if (removed != null) {
+                    idsByEmail.remove(removed.getEmail());
+                }
+                return null;
+            case "updateById":
+                return update((Long) args[0], null, (String) args[1], (String) args[2], (String) args[3]);
+            case "updateByIdAndVersion":
+                return update((Long) args[0], (Long) args[1], (String) args[2], (String) args[3], (String) args[4]);
+            case "findIdsForUpdate":
+                return ((Collection<Long>) args[0]).stream()
+                        .filter(employees::containsKey)
+                        .collect(Collectors.toList());
+            case "deleteByIdIn":
+                int deleted = 0;
+                for (Long id : (Collection<Long>) args[0]) {
+                    Employee deletedEmployee = employees.remove(id);
+                    if (deletedEmployee != null) {
+                        idsByEmail.remove(deletedEmployee.getEmail());
+                        deleted++;
+                    }
+                }
+                return deleted;
+            case "deleteAll":
+                employees.clear();
+                idsByEmail.clear();
+                return null;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return InMemoryEmployeeRepository.class.getSimpleName();
+            default:
+                throw new UnsupportedOperationException(method.toString());
+        }
+    }
+
+    //like the UPDATE query the row is replaced with a copy, employees handed out earlier keep their values
+    private int update(long id, Long expectedVersion, String firstName, String lastName, String email) {
+        Employee current = employees.get(id);
+        if (current == null || (expectedVersion != null && current.getVersion() != expectedVersion)) {
+            return 0;
+        }
+        save(Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .version(current.getVersion() + 1)
+                .build());
+        return 1;
+    }
+
+    private Employee save(Employee employee) {
+        if (employee.getId() == 0) {
+            employee.setId(sequence.incrementAndGet());
+        }
+        Employee previous = employees.put(employee.getId(), employee);
+        if (previous != null) {
+            idsByEmail.remove(previous.getEmail());
+        }
+        idsByEmail.put(employee.getEmail(), employee.getId());
+        return employee;
+    }
+}
@@ -0,0 +1,48 @@
+package com.densoft.springtesting.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//caches are configured from spring.cache.* in application.properties, hit, miss and eviction counts are in the
+//cache.* metrics. They are the only employee cache, hibernate's second-level and query cache are deliberately not
+//enabled: updates and deletes are bulk JPQL statements, and for those hibernate drops the whole entity region and
+//every cached query, so under any write load the regions stay close to empty while doubling the memory and the
+//invalidation work of these caches.
+//Eviction here is coarse as well. A write by id evicts that id, saveAll and deleteByIdIn clear the id cache, and
+//every write clears the email cache, as the previous email of a changed employee is not known
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    public static final String EMPLOYEES_BY_ID = "employeesById";
+
+    public static final String EMPLOYEES_BY_EMAIL = "employeesByEmail";
+
+    //evictions and puts inside a transaction run after it commits, a reader can not cache the old row again
+    //in between, and a rolled back write evicts nothing
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new EvictionGuardedCache(name, cache);
+            }
+        };
+        cacheManager.setAllowNullValues(false);
+        if (cacheProperties.getCaffeine().getSpec() != null) {
+            cacheManager.setCacheSpecification(cacheProperties.getCaffeine().getSpec());
+        }
+        if (!cacheProperties.getCacheNames().isEmpty()) {
+            cacheManager.setCacheNames(cacheProperties.getCacheNames());
+        }
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,126 @@
+package com.densoft.springtesting.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the number of requests in flight. Requests over the limit wait up to {@code maxWait}
+ * for a permit and are rejected with 503 afterwards.
+ * <p>
+ * A request that goes async, like a streamed export, holds its permit until the async request completes, times out
+ * or fails, not only until the container thread is handed back. Paths that do not use JDBC connections at all are
+ * not limited, and paths whose async part only waits, like the change feed long-poll, release their permit when the
+ * container thread is handed back.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+
+    private final Duration maxWait;
+
+    private final List<String> unlimitedPaths;
+
+    private final List<String> waitingAsyncPaths;
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public ConcurrencyLimitFilter(int maxConcurrentRequests, Duration maxWait) {
+        this(maxConcurrentRequests, maxWait, List.of(), List.of());
+    }
+
+    //paths are ant patterns within the application
+    public ConcurrencyLimitFilter(int maxConcurrentRequests, Duration maxWait, List<String> unlimitedPaths, List<String> waitingAsyncPaths) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.maxWait = maxWait;
+        this.unlimitedPaths = List.copyOf(unlimitedPaths);
+        this.waitingAsyncPaths = List.copyOf(waitingAsyncPaths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return matches(unlimitedPaths, request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests");
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted() && !matches(waitingAsyncPaths, request)) {
+                request.getAsyncContext().addListener(new PermitReleasingListener());
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                permits.release();
+            }
+        }
+    }
+
+    private boolean matches(List<String> patterns, HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        return patterns.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    //async dispatches are not filtered, the permit taken by the initial request is released here once
+    private class PermitReleasingListener implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            //a new async cycle of the same request, keep listening for its end
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
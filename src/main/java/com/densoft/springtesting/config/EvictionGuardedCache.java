@@ -0,0 +1,131 @@
+package com.densoft.springtesting.config;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Caffeine cache that does not let a load racing an eviction put back what the eviction removed. A reader that
+ * misses, reads the old row and stores it after the writer evicted would otherwise keep the stale employee until
+ * it expires.
+ * <p>
+ * Every eviction bumps the generation of the key's stripe before it removes the entry. A load only stores its value
+ * when the generation it started with is unchanged, and removes it again when an eviction slipped in between the
+ * check and the put. Null values are not stored, so a miss never hides a later insert.
+ * <p>
+ * Misses are loaded from the primary, a replica that lags behind would hand out the row the eviction was for. Values
+ * loaded inside a transaction are not stored: a read-write one may not commit, a read-only one may already hold a
+ * replica connection.
+ * <p>
+ * Only {@link #get(Object, Callable)} and its batch form {@link #getAll} are guarded, the cached finders use the
+ * former through {@code @Cacheable(sync = true)}.
+ */
+public class EvictionGuardedCache extends CaffeineCache {
+
+    private static final int STRIPES = 64;
+
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    public EvictionGuardedCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        super(name, cache, false);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long generation = generations.get(stripe(key));
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value;
+        try {
+            value = ReplicaRoutingDataSource.readFromPrimary(valueLoader);
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        store(key, value, generation);
+        return value;
+    }
+
+    //hits from the cache, all misses with one call to the loader, which leaves out keys that do not exist
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Map<K, V> values = new HashMap<>();
+        Map<K, Long> misses = new HashMap<>();
+        for (K key : keys) {
+            long generation = generations.get(stripe(key));
+            ValueWrapper cached = get(key);
+            if (cached != null) {
+                values.put(key, (V) cached.get());
+            } else {
+                misses.put(key, generation);
+            }
+        }
+        if (misses.isEmpty()) {
+            return values;
+        }
+        Callable<Map<K, V>> valueLoader = () -> loader.apply(misses.keySet());
+        Map<K, V> loaded;
+        try {
+            loaded = ReplicaRoutingDataSource.readFromPrimary(valueLoader);
+        } catch (Exception e) {
+            throw new ValueRetrievalException(misses.keySet(), valueLoader, e);
+        }
+        loaded.forEach((key, value) -> store(key, value, misses.get(key)));
+        values.putAll(loaded);
+        return values;
+    }
+
+    private void store(Object key, Object value, long generation) {
+        int stripe = stripe(key);
+        if (value == null || TransactionSynchronizationManager.isActualTransactionActive() || generations.get(stripe) != generation) {
+            return;
+        }
+        put(key, value);
+        if (generations.get(stripe) != generation) {
+            getNativeCache().invalidate(key);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        generations.incrementAndGet(stripe(key));
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        generations.incrementAndGet(stripe(key));
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        bumpAll();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        bumpAll();
+        return super.invalidate();
+    }
+
+    private void bumpAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+    }
+
+    private static int stripe(Object key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+}
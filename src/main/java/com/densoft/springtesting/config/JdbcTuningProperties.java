@@ -0,0 +1,52 @@
+package com.densoft.springtesting.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * MySQL Connector/J settings under app.jdbc, passed to the driver as connection properties of the Hikari pool
+ * instead of flags on the JDBC url. Pool sizing, timeouts and leak detection are spring.datasource.hikari.*.
+ * <p>
+ * Other drivers reject unknown connection properties, so nothing is applied to non-MySQL urls.
+ */
+@Data
+@ConfigurationProperties("app.jdbc")
+public class JdbcTuningProperties {
+
+    private StatementCache statementCache = new StatementCache();
+
+    //sends a JDBC batch as multi-row INSERTs instead of one round trip per row
+    private boolean rewriteBatchedStatements = true;
+
+    //streams large results in chunks of the statement fetch size instead of reading them into memory at once
+    private boolean cursorFetch = true;
+
+    public void applyTo(HikariConfig config) {
+        if (config.getJdbcUrl() == null || !config.getJdbcUrl().startsWith("jdbc:mysql:")) {
+            return;
+        }
+        config.addDataSourceProperty("cachePrepStmts", statementCache.isEnabled());
+        config.addDataSourceProperty("useServerPrepStmts", statementCache.isServerSide());
+        config.addDataSourceProperty("prepStmtCacheSize", statementCache.getSize());
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", statementCache.getSqlLimit());
+        config.addDataSourceProperty("rewriteBatchedStatements", rewriteBatchedStatements);
+        config.addDataSourceProperty("useCursorFetch", cursorFetch);
+    }
+
+    @Data
+    public static class StatementCache {
+
+        //reuse prepared statements per connection instead of preparing the same SQL again
+        private boolean enabled = true;
+
+        //prepare on the server, so a cached statement is only parsed once, cursor fetch prepares on the server anyway
+        private boolean serverSide = true;
+
+        //statements kept per connection, the repository issues a few dozen distinct ones
+        private int size = 250;
+
+        //longer SQL is not cached, IN lists padded by hibernate get long
+        private int sqlLimit = 2048;
+    }
+}
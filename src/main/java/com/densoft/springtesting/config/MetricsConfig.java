@@ -0,0 +1,36 @@
+package com.densoft.springtesting.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//http, repository, hikari and hibernate meters are bound by spring boot, see management.* in application.properties
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_TIMER = "employee.service";
+
+    //records @Timed methods such as the ones on EmployeeServiceImpl
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnExpression("'${spring.datasource.url:}'.startsWith('jdbc:mysql:')")
+    public MySqlStatementMetrics mySqlStatementMetrics(HikariDataSource dataSource) {
+        return new MySqlStatementMetrics(dataSource);
+    }
+
+    @Bean
+    @ConditionalOnExpression("${app.sql-log.sample-rate:0} > 0")
+    public HibernatePropertiesCustomizer sampledSqlLogging(@Value("${app.sql-log.sample-rate}") double sampleRate) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SampledSqlStatementInspector(sampleRate));
+    }
+}
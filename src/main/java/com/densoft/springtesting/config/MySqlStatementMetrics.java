@@ -0,0 +1,69 @@
+package com.densoft.springtesting.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Server side view of the prepared statement cache. Once the driver caches statements, mysql.statements.prepared
+ * stays flat while mysql.statements.executed grows, hibernate.statements{kind=prepared} counts the prepares the
+ * application asked for. The counters are server wide, one SHOW GLOBAL STATUS serves every scrape within
+ * {@link #REFRESH_INTERVAL}.
+ */
+@Slf4j
+public class MySqlStatementMetrics implements MeterBinder {
+
+    static final Duration REFRESH_INTERVAL = Duration.ofSeconds(10);
+
+    private static final String STATUS_SQL = "SHOW GLOBAL STATUS WHERE Variable_name IN ('Com_stmt_prepare', 'Com_stmt_execute', 'Prepared_stmt_count')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private Map<String, Double> status = Map.of();
+
+    private long refreshedAt;
+
+    public MySqlStatementMetrics(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("mysql.statements.prepared", this, metrics -> metrics.status("Com_stmt_prepare"))
+                .description("Statements prepared by the MySQL server")
+                .register(registry);
+        FunctionCounter.builder("mysql.statements.executed", this, metrics -> metrics.status("Com_stmt_execute"))
+                .description("Prepared statements executed by the MySQL server")
+                .register(registry);
+        Gauge.builder("mysql.statements.open", this, metrics -> metrics.status("Prepared_stmt_count"))
+                .description("Prepared statements currently open on the MySQL server")
+                .register(registry);
+    }
+
+    private synchronized double status(String variable) {
+        long now = System.nanoTime();
+        if (status.isEmpty() || now - refreshedAt > REFRESH_INTERVAL.toNanos()) {
+            try {
+                Map<String, Double> refreshed = new HashMap<>();
+                jdbcTemplate.query(STATUS_SQL, (RowCallbackHandler) resultSet ->
+                        refreshed.put(resultSet.getString(1), resultSet.getDouble(2)));
+                status = refreshed;
+            } catch (DataAccessException e) {
+                //the last values are reported until the database answers again
+                log.debug("Reading statement status failed", e);
+            }
+            refreshedAt = now;
+        }
+        return status.getOrDefault(variable, Double.NaN);
+    }
+}
@@ -0,0 +1,92 @@
+package com.densoft.springtesting.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the blocking JPA stack working next to R2DBC. Boot backs off the JDBC data source once an R2DBC
+ * connection factory is present, the JPA repository scan would pick up the reactive repositories as they share
+ * the employee entity, and {@code @Transactional} would see two transaction managers.
+ * <p>
+ * With app.datasource.replica.urls set, JPA and JDBC use a {@link ReplicaRoutingDataSource} that sends
+ * read-only transactions to the replicas. The replica pools copy the spring.datasource.hikari and app.jdbc settings.
+ */
+@Configuration
+@EnableConfigurationProperties({DataSourceProperties.class, JdbcTuningProperties.class})
+@EnableJpaRepositories(basePackages = "com.densoft.springtesting.repository",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveCrudRepository.class))
+public class PersistenceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties, JdbcTuningProperties jdbcTuningProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        jdbcTuningProperties.applyTo(dataSource);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.urls")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource dataSource,
+                                                             @Value("${app.datasource.replica.urls}") List<String> replicaUrls,
+                                                             @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                                             @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password,
+                                                             @Value("${app.datasource.replica.read-your-writes-window:5s}") Duration readYourWritesWindow,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String replicaUrl : replicaUrls) {
+            HikariDataSource replica = new HikariDataSource();
+            dataSource.copyStateTo(replica);
+            replica.setJdbcUrl(replicaUrl);
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setReadOnly(true);
+            //replicas are no beans, so spring boot does not bind their pool metrics
+            if (replica.getMetricsTrackerFactory() == null) {
+                meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            }
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(dataSource, replicas, readYourWritesWindow);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "app.datasource.replica.urls")
+    public DataSource routingDataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+}
@@ -0,0 +1,174 @@
+package com.densoft.springtesting.config;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions round robin to the replicas and everything else to the primary.
+ * <p>
+ * Has to sit behind a {@link LazyConnectionDataSourceProxy}: the transaction managers take the connection
+ * before the transaction is marked read-only, the proxy defers that until the first statement runs.
+ * <p>
+ * Read-your-writes: once a request runs a read-write transaction, its later reads go to the primary, and so do
+ * reads of requests that send the {@value #PRIMARY_COOKIE} cookie back within the window. Clients see their own
+ * changes even when the replicas lag behind.
+ * <p>
+ * Reads inside {@link #readFromPrimary(Callable)} go to the primary as well. The shared caches load their misses
+ * that way, a lagging replica would otherwise put a row back that a write has just evicted. Reads of single employees
+ * by id are therefore primary-only: a hit costs no database, a miss reads the primary. Loading misses from a replica
+ * would need the row's version compared against the primary, which is the read it was meant to save. Lists, pages
+ * and the other read-only queries are the ones the replicas take.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    static final String PRIMARY_COOKIE = "primary-until";
+
+    private static final String PINNED_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".pinned";
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final List<DataSource> replicas;
+
+    private final Duration readYourWritesWindow;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Duration readYourWritesWindow) {
+        this.replicas = List.copyOf(replicas);
+        this.readYourWritesWindow = readYourWritesWindow;
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targetDataSources.put(i, this.replicas.get(i));
+        }
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                pinToPrimary();
+            }
+            return PRIMARY;
+        }
+        if (replicas.isEmpty() || PRIMARY_READS.get() != null || isPinnedToPrimary()) {
+            return PRIMARY;
+        }
+        return Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+    }
+
+    //connections taken while the callable runs go to the primary, one that is already bound to the thread is reused
+    public static <T> T readFromPrimary(Callable<T> reads) throws Exception {
+        if (PRIMARY_READS.get() != null) {
+            return reads.call();
+        }
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return reads.call();
+        } finally {
+            PRIMARY_READS.remove();
+        }
+    }
+
+    //the primary pool is a bean of its own and closed by the context
+    @Override
+    public void close() throws IOException {
+        List<IOException> failures = new ArrayList<>();
+        for (DataSource replica : replicas) {
+            if (replica instanceof Closeable) {
+                try {
+                    ((Closeable) replica).close();
+                } catch (IOException e) {
+                    failures.add(e);
+                }
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw failures.get(0);
+        }
+    }
+
+    private void pinToPrimary() {
+        ServletRequestAttributes attributes = currentRequestAttributes();
+        if (attributes == null || attributes.getAttribute(PINNED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return;
+        }
+        attributes.setAttribute(PINNED_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        HttpServletResponse response = attributes.getResponse();
+        //streamed responses may already be committed, their client then only reads its writes within this request
+        if (response != null && !response.isCommitted()) {
+            long until = System.currentTimeMillis() + readYourWritesWindow.toMillis();
+            Cookie cookie = new Cookie(PRIMARY_COOKIE, Long.toString(until));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, readYourWritesWindow.toSeconds()));
+            response.addCookie(cookie);
+        }
+    }
+
+    //whether the current request wrote or sent the cookie, without checking the cookie against the window. Reads that
+    //are shared between requests use it to keep the pinned ones apart, treating a few too many as pinned is harmless
+    public static boolean isCurrentRequestPinned() {
+        ServletRequestAttributes attributes = currentRequestAttributes();
+        return attributes != null && (attributes.getAttribute(PINNED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null
+                || pinnedUntil(attributes.getRequest()) > System.currentTimeMillis());
+    }
+
+    private boolean isPinnedToPrimary() {
+        ServletRequestAttributes attributes = currentRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        if (attributes.getAttribute(PINNED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return true;
+        }
+        long until = pinnedUntil(attributes.getRequest());
+        long now = System.currentTimeMillis();
+        //the cookie is client controlled, it can not pin for longer than one window
+        return until > now && until <= now + readYourWritesWindow.toMillis();
+    }
+
+    //the time in the cookie, 0 without a valid one
+    private static long pinnedUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (PRIMARY_COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static ServletRequestAttributes currentRequestAttributes() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes ? (ServletRequestAttributes) attributes : null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.densoft.springtesting.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs a random sample of the SQL statements Hibernate prepares. The logger is routed through an async appender
+ * in logback-spring.xml so request threads never wait on the console, unlike {@code spring.jpa.show-sql}.
+ */
+@Slf4j(topic = SampledSqlStatementInspector.LOGGER_NAME)
+public class SampledSqlStatementInspector implements StatementInspector {
+
+    public static final String LOGGER_NAME = "com.densoft.springtesting.sql";
+
+    private final double sampleRate;
+
+    public SampledSqlStatementInspector(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (log.isInfoEnabled() && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            log.info(sql);
+        }
+        return sql;
+    }
+}
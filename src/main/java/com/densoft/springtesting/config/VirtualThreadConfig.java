@@ -0,0 +1,78 @@
+package com.densoft.springtesting.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in (app.threads.virtual.enabled=true) execution mode that runs every request, and so every blocking
+ * EmployeeRepository call made on its behalf, on a virtual thread instead of a Tomcat platform thread.
+ * <p>
+ * Threads stop being the limit in this mode, so the JDBC pool is: {@link ConcurrencyLimitFilter} only lets
+ * as many /api requests in as the Hikari pool has connections. That also bounds the number of carrier threads
+ * the MySQL driver can pin while it blocks inside synchronized code. Endpoints that never take a JDBC connection
+ * (the in-memory search, the write-behind log, purge job status, the R2DBC endpoints) are not limited, and a
+ * change feed long-poll gives its permit back while it waits.
+ * <p>
+ * Virtual threads need a Java 21 runtime. They are looked up reflectively because the project still
+ * compiles for Java 17, and startup fails when the property is set on an older runtime.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig implements DisposableBean {
+
+    private final ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    //StreamingResponseBody and other async request work runs on virtual threads as well
+    @Bean
+    public WebMvcConfigurer virtualThreadAsyncSupportConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(new TaskExecutorAdapter(virtualThreadExecutor));
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long connectionTimeoutMillis) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(maximumPoolSize, Duration.ofMillis(connectionTimeoutMillis),
+                        List.of("/api/employees/search", "/api/employees/write-behind/**", "/api/employees/purge/*", "/api/reactive/**"),
+                        List.of("/api/employees/changes")));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Override
+    public void destroy() {
+        virtualThreadExecutor.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("app.threads.virtual.enabled=true needs a Java 21+ runtime, running on " + Runtime.version(), e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.densoft.springtesting.controller;
+
+import com.densoft.springtesting.model.EmployeeChangePage;
+import com.densoft.springtesting.service.EmployeeChangeService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Change feed of employees for caches and search systems that keep a copy. A consumer reads the current offset
+ * ({@code GET /api/employees/changes} without after), reads all employees once, and from then on long-polls
+ * {@code ?after=<offset>} and applies the returned changes. The response carries the offset for the next request,
+ * a consumer that restarts resumes from the last offset it stored. 410 Gone means the changes after the offset
+ * are no longer retained and the consumer has to start over.
+ */
+@RestController
+@RequestMapping("/api/employees/changes")
+public class EmployeeChangeController {
+
+    static final int MAX_WAIT_SECONDS = 60;
+
+    private EmployeeChangeService employeeChangeService;
+
+    public EmployeeChangeController(EmployeeChangeService employeeChangeService) {
+        this.employeeChangeService = employeeChangeService;
+    }
+
+    //answers right away when there are changes after the offset, otherwise once there are or after wait seconds
+    @GetMapping
+    public CompletableFuture<EmployeeChangePage> getChanges(@RequestParam(value = "after", required = false) Long after,
+                                                            @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                                            @RequestParam(value = "wait", defaultValue = "30") int waitSeconds) {
+        if (after == null) {
+            return CompletableFuture.completedFuture(new EmployeeChangePage(List.of(), employeeChangeService.getOffset()));
+        }
+        Duration wait = Duration.ofSeconds(Math.max(0, Math.min(waitSeconds, MAX_WAIT_SECONDS)));
+        return employeeChangeService.awaitChanges(after, limit, wait);
+    }
+}
@@ -1,49 +1,212 @@
 package com.densoft.springtesting.controller;
 
+import com.densoft.springtesting.exception.InvalidRequestException;
+import com.densoft.springtesting.exception.VersionConflictException;
 import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeeBatchResult;
+import com.densoft.springtesting.model.EmployeePage;
+import com.densoft.springtesting.model.EmployeeView;
+import com.densoft.springtesting.model.IdempotentCreate;
 import com.densoft.springtesting.service.EmployeeService;
+import com.densoft.springtesting.service.IdempotentEmployeeService;
+import com.densoft.springtesting.util.EmployeeCsv;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+    private static final MediaType CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final Set<String> VIEW_FIELDS = new LinkedHashSet<>(List.of("id", "firstName", "lastName", "email", "version"));
+
     private EmployeeService employeeService;
 
-    public EmployeeController(EmployeeService employeeService) {
+    private IdempotentEmployeeService idempotentEmployeeService;
+
+    private ObjectMapper objectMapper;
+
+    public EmployeeController(EmployeeService employeeService, IdempotentEmployeeService idempotentEmployeeService,
+                              ObjectMapper objectMapper) {
         this.employeeService = employeeService;
+        this.idempotentEmployeeService = idempotentEmployeeService;
+        this.objectMapper = objectMapper;
     }
 
+    //clients that retry on timeouts send an Idempotency-Key, a retry then gets the original response
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Employee createEmployee(@RequestBody Employee employee) {
-        return employeeService.saveEmployee(employee);
+    public ResponseEntity<Employee> createEmployee(@RequestBody Employee employee,
+                                                   @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(employeeService.saveEmployee(employee));
+        }
+        IdempotentCreate create = idempotentEmployeeService.saveEmployee(idempotencyKey, employee);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED, Boolean.toString(create.isReplayed()))
+                .body(create.getEmployee());
     }
 
+    @PostMapping("batch")
+    public List<EmployeeBatchResult> createEmployees(@RequestBody List<Employee> employees) {
+        return employeeService.saveEmployees(employees);
+    }
+
+    //the token is read before the list, a write in between only costs the client one more full response. The ETag is
+    //weak: the token is the relayed change-feed offset, other clients' commits reach it with the next relay poll
+    //(app.changes.poll-interval) and up to app.changes.gap-timeout late behind an uncommitted lower id. Within that
+    //window a 304 may stand for a list that has changed, a client's own writes never get one (see getEmployeesVersion)
     @GetMapping
-    public List<Employee> getAllEmployees() {
+    public List<Employee> getAllEmployees(WebRequest webRequest) {
+        Optional<Long> version = employeeService.getEmployeesVersion();
+        if (version.isPresent() && webRequest.checkNotModified(weakETag(version.get()))) {
+            return null;
+        }
         return employeeService.getAllEmployees();
     }
 
+    @GetMapping(params = "limit")
+    public EmployeePage getEmployees(@RequestParam(value = "after", defaultValue = "0") long after, @RequestParam("limit") int limit) {
+        return employeeService.getEmployees(after, limit);
+    }
+
+    //a cursor without a limit gets a page of the default size, it must not fall through to the unbounded list
+    @GetMapping(params = {"after", "!limit"})
+    public EmployeePage getEmployeesAfter(@RequestParam("after") long after) {
+        return employeeService.getEmployees(after, DEFAULT_PAGE_SIZE);
+    }
+
+    //DTO read path, fields=id,email limits the serialized properties
+    @GetMapping("views")
+    public MappingJacksonValue getEmployeeViews(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                                @RequestParam(value = "fields", required = false) Set<String> fields) {
+        SimpleBeanPropertyFilter filter = SimpleBeanPropertyFilter.serializeAll();
+        if (fields != null && !fields.isEmpty()) {
+            if (!VIEW_FIELDS.containsAll(fields)) {
+                throw new InvalidRequestException("Unknown fields, supported fields are: " + String.join(",", VIEW_FIELDS));
+            }
+            filter = SimpleBeanPropertyFilter.filterOutAllExcept(fields);
+        }
+        MappingJacksonValue body = new MappingJacksonValue(employeeService.getEmployeeViews(after, limit));
+        body.setFilters(new SimpleFilterProvider().addFilter(EmployeeView.FIELDS_FILTER, filter));
+        return body;
+    }
+
+    @GetMapping("by-name")
+    public EmployeePage getEmployeesByName(@RequestParam("lastName") String lastName,
+                                           @RequestParam(value = "firstName", required = false) String firstName,
+                                           @RequestParam(value = "after", defaultValue = "0") long after,
+                                           @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return employeeService.getEmployeesByName(lastName, firstName, after, limit);
+    }
+
+    @GetMapping("search")
+    public List<Employee> searchEmployees(@RequestParam("q") String query,
+                                          @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return employeeService.searchEmployees(query, limit);
+    }
+
+    @GetMapping(value = "stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployees() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(this::writeNdjson);
+    }
+
+    //bulk export for reporting jobs, gzip is applied when the client accepts it
+    @GetMapping("export")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(@RequestParam(value = "format", defaultValue = "csv") String format,
+                                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new InvalidRequestException("Unsupported export format: " + format);
+        }
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = outputStream -> {
+            try (OutputStream target = gzip ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE) : outputStream) {
+                if (csv) {
+                    writeCsv(target);
+                } else {
+                    writeNdjson(target);
+                }
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(csv ? CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(csv ? "employees.csv" : "employees.ndjson").build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @GetMapping("{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId) {
-        return employeeService.getEmployeeById(employeeId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId, WebRequest webRequest) {
+        //a matching If-None-Match is answered from the version alone, the employee is neither loaded nor serialized
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = employeeService.getEmployeeVersion(employeeId);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (webRequest.checkNotModified(eTag(version.get()))) {
+                return null;
+            }
+        }
+        return employeeService.getEmployeeById(employeeId)
+                .map(employee -> ResponseEntity.ok().eTag(eTag(employee)).body(employee))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PutMapping("{id}")
-    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee) {
+    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        return employeeService.updateEmployee(employeeId, employee, expectedVersion(ifMatch))
+                .map(updatedEmployee -> ResponseEntity.ok().eTag(eTag(updatedEmployee)).body(updatedEmployee))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 
-        return employeeService.getEmployeeById(employeeId).map(savedEmployee -> {
-            savedEmployee.setFirstName(employee.getFirstName());
-            savedEmployee.setLastName(employee.getLastName());
-            savedEmployee.setEmail(employee.getEmail());
-            Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
-            return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
-        }).orElseGet(() -> ResponseEntity.notFound().build());
+    //bulk delete for offboarding scripts, very large id sets should go through /api/employees/purge
+    @DeleteMapping
+    public ResponseEntity<String> deleteEmployees(@RequestBody List<Long> employeeIds) {
+        int deleted = employeeService.deleteEmployees(employeeIds);
+        return new ResponseEntity<String>(deleted + " employees deleted successfully", HttpStatus.OK);
     }
 
     @DeleteMapping("{id}")
@@ -52,4 +215,96 @@ public class EmployeeController {
         return new ResponseEntity<String>("Employee deleted successfully", HttpStatus.OK);
     }
 
+    //one JSON document per line, written as rows come off the cursor so nothing is buffered
+    private void writeNdjson(OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            employeeService.streamAllEmployees(employee -> {
+                try {
+                    writer.writeValue(generator, employee);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void writeCsv(OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        writer.write(EmployeeCsv.HEADER);
+        writer.write('\n');
+        employeeService.streamAllEmployees(employee -> {
+            try {
+                EmployeeCsv.writeRow(writer, employee);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    //gzip or * with a non-zero q-value, an explicit gzip entry wins over *
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals("gzip") && !name.equals("x-gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean accepted = qValue(parts) > 0;
+            if (!name.equals("*")) {
+                return accepted;
+            }
+            wildcard = accepted;
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static double qValue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static String eTag(Employee employee) {
+        return eTag(employee.getVersion());
+    }
+
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    private static String weakETag(long version) {
+        return "W/" + eTag(version);
+    }
+
+    //If-Match carries the ETag handed out by GET/PUT, "*" or no header means update unconditionally
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 1 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new VersionConflictException("If-Match does not match any version of the employee: " + ifMatch, e);
+        }
+    }
 }
@@ -0,0 +1,33 @@
+package com.densoft.springtesting.controller;
+
+import com.densoft.springtesting.model.EmployeeImportReport;
+import com.densoft.springtesting.service.EmployeeImportService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+//the request body is read as a stream, uploads are never held in memory as a whole
+@RestController
+@RequestMapping("/api/employees/import")
+public class EmployeeImportController {
+
+    private EmployeeImportService employeeImportService;
+
+    public EmployeeImportController(EmployeeImportService employeeImportService) {
+        this.employeeImportService = employeeImportService;
+    }
+
+    @PostMapping(consumes = "text/csv")
+    public EmployeeImportReport importCsv(InputStream body) throws IOException {
+        return employeeImportService.importCsv(body);
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public EmployeeImportReport importNdjson(InputStream body) throws IOException {
+        return employeeImportService.importNdjson(body);
+    }
+}
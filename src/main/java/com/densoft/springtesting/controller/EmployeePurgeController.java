@@ -0,0 +1,40 @@
+package com.densoft.springtesting.controller;
+
+import com.densoft.springtesting.model.PurgeJob;
+import com.densoft.springtesting.service.EmployeePurgeService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/employees/purge")
+public class EmployeePurgeController {
+
+    private EmployeePurgeService employeePurgeService;
+
+    public EmployeePurgeController(EmployeePurgeService employeePurgeService) {
+        this.employeePurgeService = employeePurgeService;
+    }
+
+    @PostMapping
+    public ResponseEntity<PurgeJob> startPurge(@RequestBody List<Long> ids) {
+        PurgeJob job = employeePurgeService.startPurge(ids);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{jobId}").buildAndExpand(job.getId()).toUri())
+                .body(job);
+    }
+
+    @GetMapping("{jobId}")
+    public ResponseEntity<PurgeJob> getPurgeJob(@PathVariable("jobId") String jobId) {
+        return employeePurgeService.getPurgeJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
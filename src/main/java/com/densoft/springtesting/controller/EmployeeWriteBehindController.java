@@ -0,0 +1,37 @@
+package com.densoft.springtesting.controller;
+
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.service.EmployeeWriteBehindService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+//202 means the write is durable in the write log, it shows up in /api/employees once flushed
+@RestController
+@RequestMapping("/api/employees/write-behind")
+@ConditionalOnProperty(name = "app.write-behind.enabled", havingValue = "true")
+public class EmployeeWriteBehindController {
+
+    private EmployeeWriteBehindService employeeWriteBehindService;
+
+    public EmployeeWriteBehindController(EmployeeWriteBehindService employeeWriteBehindService) {
+        this.employeeWriteBehindService = employeeWriteBehindService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Void> createEmployee(@RequestBody Employee employee) {
+        employeeWriteBehindService.saveEmployee(employee);
+        return ResponseEntity.accepted().build();
+    }
+
+    @PutMapping("{id}")
+    public ResponseEntity<Void> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee) {
+        employeeWriteBehindService.updateEmployee(employeeId, employee);
+        return ResponseEntity.accepted().build();
+    }
+}
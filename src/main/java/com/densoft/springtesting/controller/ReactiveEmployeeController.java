@@ -0,0 +1,54 @@
+package com.densoft.springtesting.controller;
+
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.service.ReactiveEmployeeService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//non-blocking twin of EmployeeController backed by R2DBC
+@RestController
+@RequestMapping("/api/reactive/employees")
+public class ReactiveEmployeeController {
+
+    private ReactiveEmployeeService reactiveEmployeeService;
+
+    public ReactiveEmployeeController(ReactiveEmployeeService reactiveEmployeeService) {
+        this.reactiveEmployeeService = reactiveEmployeeService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Employee> createEmployee(@RequestBody Employee employee) {
+        return reactiveEmployeeService.saveEmployee(employee);
+    }
+
+    //streamed line by line for application/x-ndjson, collected into a JSON array otherwise
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Employee> getAllEmployees() {
+        return reactiveEmployeeService.getAllEmployees();
+    }
+
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable("id") long employeeId) {
+        return reactiveEmployeeService.getEmployeeById(employeeId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<Employee>> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee) {
+        return reactiveEmployeeService.updateEmployee(employeeId, employee)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("{id}")
+    public Mono<ResponseEntity<String>> deleteEmployee(@PathVariable("id") long employeeId) {
+        return reactiveEmployeeService.deleteEmployee(employeeId)
+                .thenReturn(new ResponseEntity<>("Employee deleted successfully", HttpStatus.OK));
+    }
+}
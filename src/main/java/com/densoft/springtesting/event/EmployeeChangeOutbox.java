@@ -0,0 +1,87 @@
+package com.densoft.springtesting.event;
+
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeeChange;
+import com.densoft.springtesting.repository.EmployeeChangeRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox of employee changes. Every {@link EmployeeChangedEvent} becomes a row of employee_changes,
+ * inserted in the transaction that made the change right before it commits, so a change and its row are committed
+ * or rolled back together. The change feed hands the rows out to downstream consumers.
+ * <p>
+ * The changes of one transaction go to the table in one JDBC batch. Reactive writes run without a JDBC transaction,
+ * their rows are written right after the change on a bounded elastic thread, a crash in between loses the row.
+ */
+@Component
+public class EmployeeChangeOutbox {
+
+    private final EmployeeChangeRepository employeeChangeRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public EmployeeChangeOutbox(EmployeeChangeRepository employeeChangeRepository) {
+        this.employeeChangeRepository = employeeChangeRepository;
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            employeeChangeRepository.insertAll(List.of(toChange(event, Instant.now())));
+            return;
+        }
+        PendingChanges pendingChanges = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pendingChanges == null) {
+            pendingChanges = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pendingChanges);
+            TransactionSynchronizationManager.registerSynchronization(pendingChanges);
+        }
+        pendingChanges.events.add(event);
+    }
+
+    private static EmployeeChange toChange(EmployeeChangedEvent event, Instant createdAt) {
+        EmployeeChange.EmployeeChangeBuilder change = EmployeeChange.builder()
+                .type(event.getType())
+                .employeeId(event.getId())
+                .createdAt(createdAt);
+        Employee employee = event.getEmployee();
+        if (employee != null) {
+            change.firstName(employee.getFirstName())
+                    .lastName(employee.getLastName())
+                    .email(employee.getEmail())
+                    .version(employee.getVersion());
+        }
+        return change.build();
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final List<EmployeeChangedEvent> events = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            //merged employees get their new version with the flush, the rows must carry it
+            entityManager.flush();
+            Instant createdAt = Instant.now();
+            employeeChangeRepository.insertAll(events.stream()
+                    .map(event -> toChange(event, createdAt))
+                    .collect(Collectors.toList()));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeChangeOutbox.this);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.densoft.springtesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class ChangeOffsetExpiredException extends RuntimeException {
+    public ChangeOffsetExpiredException(String message) {
+        super(message);
+    }
+}
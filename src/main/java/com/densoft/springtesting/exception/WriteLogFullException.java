@@ -0,0 +1,15 @@
+package com.densoft.springtesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class WriteLogFullException extends RuntimeException {
+    public WriteLogFullException(String message) {
+        super(message);
+    }
+
+    public WriteLogFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
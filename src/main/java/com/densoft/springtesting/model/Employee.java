@@ -12,9 +12,18 @@ import javax.persistence.*;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "employees")
+@Table(name = "employees",
+        uniqueConstraints = @UniqueConstraint(name = Employee.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email"),
+        indexes = @Index(name = Employee.NAME_INDEX, columnList = "last_name, first_name"))
+//mapping for the reactive R2DBC repository, JPA reads the javax.persistence annotations
+@org.springframework.data.relational.core.mapping.Table("employees")
 public class Employee {
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_employees_email";
+    //serves the name lookups, innodb appends the primary key so matches come back ordered by id
+    public static final String NAME_INDEX = "idx_employees_last_first";
+
     @Id
+    @org.springframework.data.annotation.Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
     @Column(name = "first_name", nullable = false)
@@ -23,6 +32,9 @@ public class Employee {
     private String lastName;
     @Column(nullable = false)
     private String email;
+    //bumped on every update, also served as the ETag of the employee
+    @Version
+    private long version;
 }
 
 
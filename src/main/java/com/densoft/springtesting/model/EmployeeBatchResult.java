@@ -0,0 +1,23 @@
+package com.densoft.springtesting.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeBatchResult {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    //position of the employee in the submitted batch
+    private int index;
+    private Status status;
+    private Employee employee;
+    private String message;
+}
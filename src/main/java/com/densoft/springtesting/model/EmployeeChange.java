@@ -0,0 +1,39 @@
+package com.densoft.springtesting.model;
+
+import com.densoft.springtesting.event.EmployeeChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+//row of the employee_changes outbox, written in the transaction of the change, the id is the offset consumers resume after
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "employee_changes", indexes = @Index(name = "idx_employee_changes_created_at", columnList = "created_at"))
+public class EmployeeChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EmployeeChangedEvent.Type type;
+    @Column(name = "employee_id", nullable = false)
+    private long employeeId;
+    //the employee as written, null for deletes
+    @Column(name = "first_name")
+    private String firstName;
+    @Column(name = "last_name")
+    private String lastName;
+    private String email;
+    //consumers that apply changes out of order keep the higher version
+    private Long version;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
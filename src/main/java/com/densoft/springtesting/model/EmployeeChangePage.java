@@ -0,0 +1,16 @@
+package com.densoft.springtesting.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeChangePage {
+    private List<EmployeeChange> changes;
+    //offset to pass as ?after= for the next request, every change up to it has been delivered
+    private long offset;
+}
@@ -0,0 +1,29 @@
+package com.densoft.springtesting.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class EmployeeImportReport {
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        //line in the uploaded file, the CSV header is line 1
+        private long line;
+        private String message;
+    }
+
+    private long rows;
+    private long created;
+    private long duplicates;
+    private long invalid;
+    //only the first errors are listed so the report stays small for huge files
+    private List<RowError> errors = new ArrayList<>();
+}
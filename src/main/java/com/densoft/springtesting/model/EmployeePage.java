@@ -0,0 +1,16 @@
+package com.densoft.springtesting.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeePage {
+    private List<Employee> content;
+    //id to pass as ?after= for the next page, null on the last page
+    private Long nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.densoft.springtesting.model;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.Value;
+
+//read model built by a JPQL constructor expression, never a managed entity so hibernate keeps no snapshot of it
+@Value
+@JsonFilter(EmployeeView.FIELDS_FILTER)
+public class EmployeeView {
+
+    public static final String FIELDS_FILTER = "employeeViewFields";
+
+    long id;
+    String firstName;
+    String lastName;
+    String email;
+    long version;
+}
@@ -0,0 +1,22 @@
+package com.densoft.springtesting.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//a create or update accepted in write-behind mode, stored as JSON in the write log
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeWrite {
+
+    public enum Type {
+        CREATE,
+        UPDATE
+    }
+
+    private Type type;
+    //only set for updates
+    private Long id;
+    private Employee employee;
+}
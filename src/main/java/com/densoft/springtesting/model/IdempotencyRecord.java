@@ -0,0 +1,55 @@
+package com.densoft.springtesting.model;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+//durable Idempotency-Key of a create, written in the transaction of the employee insert. The key is assigned, so
+//Persistable tells spring data to persist a new record instead of merging it, which would SELECT it first
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at"))
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+    //digest of the request, a key can not be reused for a different employee
+    @Column(name = "request_hash", nullable = false, length = 32)
+    private String requestHash;
+    @Column(name = "employee_id", nullable = false)
+    private long employeeId;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    @Transient
+    @EqualsAndHashCode.Exclude
+    private boolean persisted;
+
+    public IdempotencyRecord(String idempotencyKey, String requestHash, long employeeId, Instant createdAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.employeeId = employeeId;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
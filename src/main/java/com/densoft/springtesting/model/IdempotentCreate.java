@@ -0,0 +1,13 @@
+package com.densoft.springtesting.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class IdempotentCreate {
+
+    private Employee employee;
+    //true when the employee was created by an earlier request with the same Idempotency-Key
+    private boolean replayed;
+}
@@ -0,0 +1,32 @@
+package com.densoft.springtesting.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//progress of an asynchronous purge, updated by the purge thread while clients poll it
+@Data
+@NoArgsConstructor
+public class PurgeJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private String id;
+    private volatile Status status;
+    private int total;
+    //ids already submitted in DELETE statements
+    private volatile int processed;
+    //rows actually removed, ids that no longer existed are not counted
+    private volatile int deleted;
+    private volatile String message;
+
+    public PurgeJob(String id, int total) {
+        this.id = id;
+        this.total = total;
+        this.status = Status.QUEUED;
+    }
+}
@@ -0,0 +1,23 @@
+package com.densoft.springtesting.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+//last write-behind log record applied to the database, written in the transaction of its batch so a replay after a
+//crash skips what already committed
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "write_behind_checkpoints")
+public class WriteBehindCheckpoint {
+
+    @Id
+    @Column(name = "log_id", length = 36)
+    private String logId;
+    @Column(name = "applied_sequence", nullable = false)
+    private long appliedSequence;
+}
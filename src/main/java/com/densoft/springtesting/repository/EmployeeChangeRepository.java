@@ -0,0 +1,36 @@
+package com.densoft.springtesting.repository;
+
+import com.densoft.springtesting.model.EmployeeChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+//the change feed reads in read-write transactions on purpose, a lagging replica would let it skip changes
+public interface EmployeeChangeRepository extends JpaRepository<EmployeeChange, Long>, EmployeeChangeRepositoryCustom {
+
+    @Transactional
+    List<EmployeeChange> findByIdGreaterThanOrderByIdAsc(long after, Pageable pageable);
+
+    @Transactional
+    List<EmployeeChange> findByIdBetweenOrderByIdAsc(long from, long to, Pageable pageable);
+
+    @Transactional
+    @Query("SELECT MIN(c.id) FROM EmployeeChange c")
+    Optional<Long> findFirstId();
+
+    @Transactional
+    @Query("SELECT MAX(c.id) FROM EmployeeChange c WHERE c.createdAt < :createdAt")
+    Optional<Long> findLastIdCreatedBefore(@Param("createdAt") Instant createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EmployeeChange c WHERE c.createdAt < :createdAt")
+    int deleteCreatedBefore(@Param("createdAt") Instant createdAt);
+}
@@ -0,0 +1,12 @@
+package com.densoft.springtesting.repository;
+
+import com.densoft.springtesting.model.EmployeeChange;
+
+import java.util.List;
+
+
+public interface EmployeeChangeRepositoryCustom {
+
+    //insert with JDBC batching, in the surrounding transaction, the generated ids are not read back
+    void insertAll(List<EmployeeChange> changes);
+}
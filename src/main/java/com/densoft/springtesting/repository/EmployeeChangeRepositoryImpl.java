@@ -0,0 +1,42 @@
+package com.densoft.springtesting.repository;
+
+import com.densoft.springtesting.model.EmployeeChange;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+
+public class EmployeeChangeRepositoryImpl implements EmployeeChangeRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO employee_changes (type, employee_id, first_name, last_name, email, version, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EmployeeChangeRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<EmployeeChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, changes, INSERT_BATCH_SIZE, (statement, change) -> {
+            statement.setString(1, change.getType().name());
+            statement.setLong(2, change.getEmployeeId());
+            statement.setString(3, change.getFirstName());
+            statement.setString(4, change.getLastName());
+            statement.setString(5, change.getEmail());
+            if (change.getVersion() == null) {
+                statement.setNull(6, Types.BIGINT);
+            } else {
+                statement.setLong(6, change.getVersion());
+            }
+            statement.setTimestamp(7, Timestamp.from(change.getCreatedAt()));
+        });
+    }
+}
@@ -1,17 +1,126 @@
 package com.densoft.springtesting.repository;
 
+import com.densoft.springtesting.config.CacheConfig;
 import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeeView;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
 
+    //only hits are cached (EvictionGuardedCache), a miss for a new email must not hide a later insert
+    @Override
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES_BY_ID, sync = true)
+    Optional<Employee> findById(Long id);
+
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, sync = true)
     Optional<Employee> findByEmail(String email);
 
+    //the previous email of an updated employee is unknown here, so the email cache is cleared as a whole
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_ID, key = "#p0.id"),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, allEntries = true)
+    })
+    <S extends Employee> S save(S employee);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_ID, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, allEntries = true)
+    })
+    <S extends Employee> List<S> saveAll(Iterable<S> employees);
+
+    //single UPDATE without loading the entity first, returns the number of updated rows
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_ID, key = "#p0"),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, allEntries = true)
+    })
+    @Query("UPDATE Employee e SET e.firstName = :firstName, e.lastName = :lastName, e.email = :email, e.version = e.version + 1 WHERE e.id = :id")
+    int updateById(@Param("id") long id, @Param("firstName") String firstName, @Param("lastName") String lastName, @Param("email") String email);
+
+    //same as updateById but only when the row still has the version the client read
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_ID, key = "#p0"),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, allEntries = true)
+    })
+    @Query("UPDATE Employee e SET e.firstName = :firstName, e.lastName = :lastName, e.email = :email, e.version = e.version + 1 WHERE e.id = :id AND e.version = :version")
+    int updateByIdAndVersion(@Param("id") long id, @Param("version") long version, @Param("firstName") String firstName, @Param("lastName") String lastName, @Param("email") String email);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_ID, key = "#p0"),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, allEntries = true)
+    })
+    void deleteById(Long id);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_ID, key = "#p0.id"),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, allEntries = true)
+    })
+    void delete(Employee employee);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_ID, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, allEntries = true)
+    })
+    void deleteAll();
+
+    //one set based DELETE without loading the entities, callers keep the id list short
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_ID, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, allEntries = true)
+    })
+    @Query("DELETE FROM Employee e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    //locks the rows a following deleteByIdIn removes, the ids that come back are exactly the ones it deletes
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e.id FROM Employee e WHERE e.id IN :ids")
+    List<Long> findIdsForUpdate(@Param("ids") Collection<Long> ids);
+
+    List<Employee> findByEmailIn(Collection<String> emails);
+
+    //answers conditional GETs from the primary key index, the employee is not loaded
+    @Query("SELECT e.version FROM Employee e WHERE e.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
+    //keyset pagination, seeks on the primary key instead of skipping OFFSET rows
+    List<Employee> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    //same keyset page as above but selected into DTOs, no entities are hydrated
+    @Query("SELECT new com.densoft.springtesting.model.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version)"
+            + " FROM Employee e WHERE e.id > :after ORDER BY e.id")
+    List<EmployeeView> findViewsByIdGreaterThan(@Param("after") long after, Pageable pageable);
+
+    //keyset pages over the (last_name, first_name) index
+    List<Employee> findByLastNameAndFirstNameAndIdGreaterThanOrderByIdAsc(String lastName, String firstName, long id, Pageable pageable);
+
+    List<Employee> findByLastNameAndIdGreaterThanOrderByIdAsc(String lastName, long id, Pageable pageable);
+
     //define custom query using JPQL with index params
     @Query("SELECT e FROM Employee e WHERE e.firstName=?1 AND e.lastName=?2")
     Employee findByJPQL(String firstName, String lastName);
@@ -0,0 +1,20 @@
+package com.densoft.springtesting.repository;
+
+import com.densoft.springtesting.model.Employee;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+
+public interface EmployeeRepositoryCustom {
+
+    //hand every row to the consumer as it is read off a forward-only JDBC cursor
+    void streamAll(Consumer<Employee> consumer);
+
+    //one IN query, ids that do not exist are left out
+    List<Employee> loadAllById(Collection<Long> ids);
+
+    //insert with JDBC batching and copy the generated ids back onto the employees
+    void insertAll(List<Employee> employees);
+}
@@ -0,0 +1,106 @@
+package com.densoft.springtesting.repository;
+
+import com.densoft.springtesting.model.Employee;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+
+public class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+    private static final String SELECT_ALL_SQL = "SELECT id, first_name, last_name, email, version FROM employees ORDER BY id";
+
+    private static final String INSERT_SQL = "INSERT INTO employees (first_name, last_name, email, version) VALUES (?, ?, ?, 0)";
+
+    //statements per executeBatch, rewritten into multi-row INSERTs by app.jdbc.rewrite-batched-statements
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    //rows pulled from the server per round trip, needs app.jdbc.cursor-fetch on MySQL
+    private final int streamFetchSize;
+
+    public EmployeeRepositoryImpl(JdbcTemplate jdbcTemplate, @Value("${app.export.fetch-size:500}") int streamFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    //read-only keeps the database from tracking the long running cursor as a write transaction,
+    //rows are mapped straight from the result set so no persistence context fills up
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Employee> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_ALL_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(streamFetchSize);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(mapRow(resultSet)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Employee> loadAllById(Collection<Long> ids) {
+        List<Employee> employees = entityManager.unwrap(Session.class)
+                .byMultipleIds(Employee.class)
+                .multiLoad(new ArrayList<>(ids));
+        employees.removeIf(Objects::isNull);
+        return employees;
+    }
+
+    @Override
+    public void insertAll(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < employees.size(); from += INSERT_BATCH_SIZE) {
+                    List<Employee> chunk = employees.subList(from, Math.min(from + INSERT_BATCH_SIZE, employees.size()));
+                    for (Employee employee : chunk) {
+                        statement.setString(1, employee.getFirstName());
+                        statement.setString(2, employee.getLastName());
+                        statement.setString(3, employee.getEmail());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                        for (Employee employee : chunk) {
+                            if (generatedKeys.next()) {
+                                employee.setId(generatedKeys.getLong(1));
+                            }
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static Employee mapRow(ResultSet resultSet) throws SQLException {
+        return Employee.builder()
+                .id(resultSet.getLong("id"))
+                .firstName(resultSet.getString("first_name"))
+                .lastName(resultSet.getString("last_name"))
+                .email(resultSet.getString("email"))
+                .version(resultSet.getLong("version"))
+                .build();
+    }
+}
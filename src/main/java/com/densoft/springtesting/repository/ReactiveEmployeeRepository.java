@@ -0,0 +1,26 @@
+package com.densoft.springtesting.repository;
+
+import com.densoft.springtesting.model.Employee;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+public interface ReactiveEmployeeRepository extends ReactiveCrudRepository<Employee, Long> {
+
+    //rows are emitted as the driver reads them, demand from the subscriber throttles the read
+    @Query("SELECT * FROM employees ORDER BY id")
+    Flux<Employee> findAllOrderById();
+
+    //single UPDATE like EmployeeRepository.updateById, save() would treat a version 0 row as new and INSERT it
+    @Modifying
+    @Query("UPDATE employees SET first_name = :firstName, last_name = :lastName, email = :email, version = version + 1 WHERE id = :id")
+    Mono<Integer> updateById(long id, String firstName, String lastName, String email);
+
+    //deleteById() completes the same whether the row was there or not, this reports the deleted rows
+    @Modifying
+    @Query("DELETE FROM employees WHERE id = :id")
+    Mono<Integer> deleteRowById(long id);
+}
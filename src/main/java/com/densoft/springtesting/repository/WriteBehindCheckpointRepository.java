@@ -0,0 +1,7 @@
+package com.densoft.springtesting.repository;
+
+import com.densoft.springtesting.model.WriteBehindCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface WriteBehindCheckpointRepository extends JpaRepository<WriteBehindCheckpoint, String> {
+}
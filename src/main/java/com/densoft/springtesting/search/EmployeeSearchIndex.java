@@ -0,0 +1,175 @@
+package com.densoft.springtesting.search;
+
+import com.densoft.springtesting.event.EmployeeChangedEvent;
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.repository.EmployeeRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory type-ahead index over first name, last name and email. Every lower-cased name, the email and each
+ * word of the email are tokens in a sorted map, a query term matches all tokens it is a prefix of, so a lookup is
+ * a range scan instead of a {@code LIKE '%x%'} over the table.
+ * <p>
+ * Built from the employees table once the application is ready and kept current through
+ * {@link EmployeeChangedEvent}s. Events that arrive while the table is streamed are held back and applied once the
+ * build is done, a row the build read before a later update or delete can not overwrite or bring back the change.
+ * Lookups do not lock, writes are serialized.
+ */
+@Component
+public class EmployeeSearchIndex {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final ConcurrentSkipListMap<String, Set<Long>> tokens = new ConcurrentSkipListMap<>();
+
+    private final Map<Long, Employee> employees = new ConcurrentHashMap<>();
+
+    //changes committed during the build, in arrival order, null once the build is done
+    private List<Runnable> pendingChanges;
+
+    public EmployeeSearchIndex(EmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        try {
+            employeeRepository.streamAll(this::put);
+        } finally {
+            synchronized (this) {
+                pendingChanges.forEach(Runnable::run);
+                pendingChanges = null;
+            }
+        }
+    }
+
+    //after commit, so rolled back writes never show up in search results
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEmployeeChanged(EmployeeChangedEvent event) {
+        Runnable change;
+        if (event.getType() == EmployeeChangedEvent.Type.DELETED) {
+            long id = event.getId();
+            change = () -> remove(id);
+        } else {
+            Employee employee = copyOf(event.getEmployee());
+            change = () -> put(employee);
+        }
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        } else {
+            change.run();
+        }
+    }
+
+    //employees matching every whitespace separated term of the query, ordered by the token of the first term
+    public List<Employee> search(String query, int limit) {
+        String[] terms = normalize(query).split("\\s+");
+        List<Employee> results = new ArrayList<>();
+        if (terms[0].isEmpty()) {
+            return results;
+        }
+        Set<Long> seen = new HashSet<>();
+        for (Set<Long> ids : prefixRange(terms[0]).values()) {
+            for (Long id : ids) {
+                Employee employee = employees.get(id);
+                if (employee != null && seen.add(id) && matchesAll(employee, terms)) {
+                    results.add(employee);
+                    if (results.size() == limit) {
+                        return results;
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    public int size() {
+        return employees.size();
+    }
+
+    synchronized void put(Employee employee) {
+        Employee indexed = copyOf(employee);
+        Employee previous = employees.put(indexed.getId(), indexed);
+        if (previous != null) {
+            removeTokens(previous);
+        }
+        for (String token : tokensOf(indexed)) {
+            tokens.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet()).add(indexed.getId());
+        }
+    }
+
+    synchronized void remove(long id) {
+        Employee previous = employees.remove(id);
+        if (previous != null) {
+            removeTokens(previous);
+        }
+    }
+
+    private void removeTokens(Employee employee) {
+        for (String token : tokensOf(employee)) {
+            tokens.computeIfPresent(token, (key, ids) -> {
+                ids.remove(employee.getId());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    //copied, the index must not change with entities that are modified after they were written
+    private static Employee copyOf(Employee employee) {
+        return new Employee(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getEmail(), employee.getVersion());
+    }
+
+    private NavigableMap<String, Set<Long>> prefixRange(String prefix) {
+        return tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static boolean matchesAll(Employee employee, String[] terms) {
+        if (terms.length == 1) {
+            return true;
+        }
+        Set<String> employeeTokens = tokensOf(employee);
+        return Arrays.stream(terms).allMatch(term -> employeeTokens.stream().anyMatch(token -> token.startsWith(term)));
+    }
+
+    private static Set<String> tokensOf(Employee employee) {
+        Set<String> result = new HashSet<>();
+        addToken(result, employee.getFirstName());
+        addToken(result, employee.getLastName());
+        if (employee.getEmail() != null) {
+            String email = normalize(employee.getEmail());
+            result.add(email);
+            for (String word : email.split("[^\\p{Alnum}]+")) {
+                addToken(result, word);
+            }
+        }
+        return result;
+    }
+
+    private static void addToken(Set<String> result, String value) {
+        if (value != null && !value.isBlank()) {
+            result.add(normalize(value));
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,15 @@
+package com.densoft.springtesting.service;
+
+import com.densoft.springtesting.model.EmployeeChangePage;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+public interface EmployeeChangeService {
+
+    //offset of the latest change handed out, consumers that read all employees first resume after it
+    long getOffset();
+
+    //changes after the offset in offset order, completes as soon as there are any, with an empty page after the timeout
+    CompletableFuture<EmployeeChangePage> awaitChanges(long after, int limit, Duration timeout);
+}
@@ -0,0 +1,15 @@
+package com.densoft.springtesting.service;
+
+import com.densoft.springtesting.model.EmployeeImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface EmployeeImportService {
+
+    //CSV with a header row naming the firstName, lastName and email columns
+    EmployeeImportReport importCsv(InputStream csv) throws IOException;
+
+    //one employee JSON document per line
+    EmployeeImportReport importNdjson(InputStream ndjson) throws IOException;
+}
@@ -0,0 +1,14 @@
+package com.densoft.springtesting.service;
+
+import com.densoft.springtesting.model.PurgeJob;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface EmployeePurgeService {
+
+    //queues the purge and returns immediately, poll getPurgeJob for progress
+    PurgeJob startPurge(List<Long> ids);
+
+    Optional<PurgeJob> getPurgeJob(String jobId);
+}
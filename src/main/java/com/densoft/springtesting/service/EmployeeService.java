@@ -1,21 +1,53 @@
 package com.densoft.springtesting.service;
 
 import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeeBatchResult;
+import com.densoft.springtesting.model.EmployeePage;
+import com.densoft.springtesting.model.EmployeeViewPage;
 
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 
 public interface EmployeeService {
 
     Employee saveEmployee(Employee employee);
 
+    List<EmployeeBatchResult> saveEmployees(List<Employee> employees);
+
     List<Employee> getAllEmployees();
 
+    EmployeePage getEmployees(long after, int limit);
+
+    EmployeeViewPage getEmployeeViews(long after, int limit);
+
+    //firstName is optional, lastName alone still uses the name index
+    EmployeePage getEmployeesByName(String lastName, String firstName, long after, int limit);
+
+    //type-ahead over first name, last name and email, served from the in-memory search index
+    List<Employee> searchEmployees(String query, int limit);
+
+    void streamAllEmployees(Consumer<Employee> consumer);
+
     Optional<Employee> getEmployeeById(long id);
 
+    //current version of the employee without loading it, empty when it does not exist
+    Optional<Long> getEmployeeVersion(long id);
+
+    //changes whenever an employee is created, updated or deleted, once the change feed relayed the change. Empty when
+    //it may not cover the caller's own writes yet
+    Optional<Long> getEmployeesVersion();
+
     Employee updateEmployee(Employee updatedEmployee);
 
+    //expectedVersion is optional, when given the update only applies to that version of the employee
+    Optional<Employee> updateEmployee(long id, Employee employee, Long expectedVersion);
+
     void deleteEmployee(long id);
+
+    //returns the number of deleted employees, unknown ids are ignored
+    int deleteEmployees(Collection<Long> ids);
 }
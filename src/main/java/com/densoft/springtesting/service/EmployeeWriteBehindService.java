@@ -0,0 +1,11 @@
+package com.densoft.springtesting.service;
+
+import com.densoft.springtesting.model.Employee;
+
+public interface EmployeeWriteBehindService {
+
+    //returns once the write is in the durable write log, it reaches the database with the next flush
+    void saveEmployee(Employee employee);
+
+    void updateEmployee(long id, Employee employee);
+}
@@ -0,0 +1,9 @@
+package com.densoft.springtesting.service;
+
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.IdempotentCreate;
+
+public interface IdempotentEmployeeService {
+
+    IdempotentCreate saveEmployee(String idempotencyKey, Employee employee);
+}
@@ -0,0 +1,216 @@
+package com.densoft.springtesting.service.impl;
+
+import com.densoft.springtesting.event.EmployeeChangedEvent;
+import com.densoft.springtesting.exception.ChangeOffsetExpiredException;
+import com.densoft.springtesting.model.EmployeeChange;
+import com.densoft.springtesting.model.EmployeeChangePage;
+import com.densoft.springtesting.repository.EmployeeChangeRepository;
+import com.densoft.springtesting.service.EmployeeChangeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Relays the employee_changes outbox to consumers of the change feed. The offset of a change is its id, consumers
+ * pass the offset of the last change they applied and get the ones after it.
+ * <p>
+ * Ids are taken when a row is inserted but become visible when its transaction commits, so a lower id can show up
+ * after a higher one. The relay only advances its offset over consecutive ids: a gap is waited for until the
+ * gap timeout, after that it counts as rolled back and is skipped. Consumers never read past the relayed offset,
+ * so they do not miss a change that commits late.
+ * <p>
+ * The relay polls the table, changes made by this instance are relayed right after their commit. Consumers that wait
+ * for changes are completed by the relay, no request holds a thread or a connection while it waits.
+ */
+@Slf4j
+@Service
+//the outbox is purged on schedule, also when the other beans are created lazily
+@Lazy(false)
+public class EmployeeChangeServiceImpl implements EmployeeChangeService, DisposableBean {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    private final int batchSize;
+
+    private final Duration gapTimeout;
+
+    private final Duration retention;
+
+    //every change up to this offset is committed and may be handed out, -1 until the relay ran once
+    private volatile long relayedOffset = -1;
+
+    //offset after which the relay found a gap and since when, only the relay touches these
+    private long gapAfter = -1;
+
+    private long gapSince;
+
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean relayRequested = new AtomicBoolean();
+
+    private final ScheduledExecutorService relay = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-change-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EmployeeChangeServiceImpl(EmployeeChangeRepository employeeChangeRepository,
+                                     @Value("${app.changes.poll-interval:500ms}") Duration pollInterval,
+                                     @Value("${app.changes.batch-size:500}") int batchSize,
+                                     @Value("${app.changes.gap-timeout:5s}") Duration gapTimeout,
+                                     @Value("${app.changes.retention:7d}") Duration retention) {
+        this.employeeChangeRepository = employeeChangeRepository;
+        this.batchSize = batchSize;
+        this.gapTimeout = gapTimeout;
+        this.retention = retention;
+        relay.scheduleWithFixedDelay(this::relayChanges, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long getOffset() {
+        return relayedOffset();
+    }
+
+    @Override
+    public CompletableFuture<EmployeeChangePage> awaitChanges(long after, int limit, Duration timeout) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long offset = relayedOffset();
+        EmployeeChangePage page = getChanges(after, pageSize, offset);
+        if (!page.getChanges().isEmpty() || timeout.isZero()) {
+            return CompletableFuture.completedFuture(page);
+        }
+        Waiter waiter = new Waiter(after, pageSize);
+        waiters.add(waiter);
+        waiter.page.whenComplete((completedPage, e) -> waiters.remove(waiter));
+        //the relay may have moved on before the waiter was registered, then it did not complete it
+        long currentOffset = relayedOffset;
+        if (currentOffset != offset) {
+            waiter.page.complete(getChanges(after, pageSize, currentOffset));
+        }
+        return waiter.page.completeOnTimeout(page, timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    //a local change is relayed right after its commit, changes of other instances with the next poll
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (relayRequested.compareAndSet(false, true) && !relay.isShutdown()) {
+            relay.execute(this::relayChanges);
+        }
+    }
+
+    @Scheduled(initialDelay = 1, fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeExpiredChanges() {
+        int purged = employeeChangeRepository.deleteCreatedBefore(Instant.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} employee changes older than {}", purged, retention);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        relay.shutdown();
+        relay.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    //relays at most one batch and returns the number of changes handed out
+    synchronized int relay() {
+        relayRequested.set(false);
+        if (relayedOffset < 0) {
+            //rows younger than the gap timeout may still have uncommitted ones below them, they are relayed as usual
+            relayedOffset = employeeChangeRepository.findLastIdCreatedBefore(Instant.now().minus(gapTimeout)).orElse(0L);
+        }
+        List<EmployeeChange> changes = employeeChangeRepository.findByIdGreaterThanOrderByIdAsc(relayedOffset, PageRequest.of(0, batchSize));
+        List<EmployeeChange> relayed = new ArrayList<>(changes.size());
+        long offset = relayedOffset;
+        for (EmployeeChange change : changes) {
+            if (change.getId() != offset + 1) {
+                if (gapAfter != offset) {
+                    gapAfter = offset;
+                    gapSince = System.nanoTime();
+                }
+                if (System.nanoTime() - gapSince < gapTimeout.toNanos()) {
+                    break;
+                }
+            }
+            offset = change.getId();
+            relayed.add(change);
+        }
+        if (relayed.isEmpty()) {
+            return 0;
+        }
+        relayedOffset = offset;
+        for (Waiter waiter : waiters) {
+            List<EmployeeChange> waitedFor = relayed.stream()
+                    .filter(change -> change.getId() > waiter.after)
+                    .limit(waiter.limit)
+                    .collect(Collectors.toList());
+            if (!waitedFor.isEmpty()) {
+                waiter.page.complete(new EmployeeChangePage(waitedFor, waitedFor.size() < waiter.limit
+                        ? offset : waitedFor.get(waitedFor.size() - 1).getId()));
+            }
+        }
+        return relayed.size();
+    }
+
+    private void relayChanges() {
+        try {
+            while (relay() == batchSize) {
+                //keep going until the backlog is relayed
+            }
+        } catch (RuntimeException e) {
+            log.warn("Relaying employee changes failed, retrying with the next poll", e);
+        }
+    }
+
+    private long relayedOffset() {
+        if (relayedOffset < 0) {
+            relay();
+        }
+        return relayedOffset;
+    }
+
+    private EmployeeChangePage getChanges(long after, int pageSize, long offset) {
+        if (after >= offset) {
+            return new EmployeeChangePage(List.of(), after);
+        }
+        //changes after the requested offset have been purged already, the consumer has to read all employees again
+        long firstRetained = employeeChangeRepository.findFirstId().orElse(offset + 1);
+        if (after + 1 < firstRetained) {
+            throw new ChangeOffsetExpiredException("Changes after offset " + after + " are no longer retained, read all employees and resume after offset " + offset);
+        }
+        List<EmployeeChange> changes = employeeChangeRepository.findByIdBetweenOrderByIdAsc(after + 1, offset, PageRequest.of(0, pageSize));
+        //a partial page covers everything up to the relayed offset
+        return new EmployeeChangePage(changes, changes.size() < pageSize ? offset : changes.get(changes.size() - 1).getId());
+    }
+
+    private static final class Waiter {
+        private final long after;
+        private final int limit;
+        private final CompletableFuture<EmployeeChangePage> page = new CompletableFuture<>();
+
+        private Waiter(long after, int limit) {
+            this.after = after;
+            this.limit = limit;
+        }
+    }
+}
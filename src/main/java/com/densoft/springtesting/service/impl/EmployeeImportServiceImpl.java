@@ -0,0 +1,328 @@
+package com.densoft.springtesting.service.impl;
+
+import com.densoft.springtesting.exception.InvalidRequestException;
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeeBatchResult;
+import com.densoft.springtesting.model.EmployeeImportReport;
+import com.densoft.springtesting.service.EmployeeImportService;
+import com.densoft.springtesting.service.EmployeeService;
+import com.densoft.springtesting.util.EmployeeCsv;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads uploads line by line and hands them to {@link EmployeeService#saveEmployees} in chunks of the commit
+ * interval, so memory stays constant whatever the file size. Every chunk is one transaction with one email lookup
+ * and batched inserts. Emails from earlier chunks are already in the table by then, so duplicates across the file
+ * are found by that lookup instead of a set of every email seen.
+ * <p>
+ * A chunk that still fails on a constraint, for example an email inserted by another request after the lookup,
+ * is retried row by row so only the offending rows are reported. Lines are read up to a maximum length, the rest
+ * of a longer line is skipped and the row rejected, so a file without line breaks can not exhaust the heap.
+ */
+@Service
+public class EmployeeImportServiceImpl implements EmployeeImportService {
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    //default length of the varchar columns of the employees table
+    static final int MAX_COLUMN_LENGTH = 255;
+
+    private EmployeeService employeeService;
+
+    private ObjectReader employeeReader;
+
+    private final int commitInterval;
+
+    private final int maxLineLength;
+
+    public EmployeeImportServiceImpl(EmployeeService employeeService, ObjectMapper objectMapper,
+                                     @Value("${app.import.commit-interval:1000}") int commitInterval,
+                                     @Value("${app.import.max-line-length:8192}") int maxLineLength) {
+        this.employeeService = employeeService;
+        this.employeeReader = objectMapper.readerFor(Employee.class);
+        this.commitInterval = commitInterval;
+        this.maxLineLength = maxLineLength;
+    }
+
+    @Override
+    public EmployeeImportReport importCsv(InputStream csv) throws IOException {
+        LineReader reader = new LineReader(csv, maxLineLength);
+        Importer importer = new Importer();
+        String header = reader.readLine();
+        if (header == null) {
+            return importer.finish();
+        }
+        if (reader.isTruncated()) {
+            throw new InvalidRequestException(tooLongMessage());
+        }
+        Map<String, Integer> columns;
+        try {
+            columns = EmployeeCsv.columns(header);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(e.getMessage(), e);
+        }
+        String line;
+        while ((line = reader.readLine()) != null) {
+            //rows are reported by the line they start on
+            long lineNumber = reader.getLineNumber();
+            String record = line;
+            boolean tooLong = reader.isTruncated();
+            while (!tooLong && EmployeeCsv.endsInQuotedField(record) && (line = reader.readLine()) != null) {
+                record = record + "\n" + line;
+                tooLong = reader.isTruncated() || record.length() > maxLineLength;
+            }
+            if (tooLong) {
+                importer.reject(lineNumber, tooLongMessage());
+                continue;
+            }
+            if (record.isBlank()) {
+                continue;
+            }
+            try {
+                importer.add(lineNumber, EmployeeCsv.toEmployee(record, columns));
+            } catch (IllegalArgumentException e) {
+                importer.reject(lineNumber, e.getMessage());
+            }
+        }
+        return importer.finish();
+    }
+
+    @Override
+    public EmployeeImportReport importNdjson(InputStream ndjson) throws IOException {
+        LineReader reader = new LineReader(ndjson, maxLineLength);
+        Importer importer = new Importer();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            long lineNumber = reader.getLineNumber();
+            if (reader.isTruncated()) {
+                importer.reject(lineNumber, tooLongMessage());
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                Employee employee = employeeReader.readValue(line);
+                //ids and versions are assigned by the database
+                importer.add(lineNumber, Employee.builder()
+                        .firstName(employee.getFirstName())
+                        .lastName(employee.getLastName())
+                        .email(employee.getEmail())
+                        .build());
+            } catch (JsonProcessingException e) {
+                importer.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return importer.finish();
+    }
+
+    private String tooLongMessage() {
+        return "Rows must not be longer than " + maxLineLength + " characters";
+    }
+
+    private static String tooLongField(Employee employee) {
+        for (String field : new String[]{employee.getFirstName(), employee.getLastName(), employee.getEmail()}) {
+            if (field != null && field.length() > MAX_COLUMN_LENGTH) {
+                return "Fields must not be longer than " + MAX_COLUMN_LENGTH + " characters";
+            }
+        }
+        return null;
+    }
+
+    //the constraint name as the employee service reads it, the violation may be wrapped more than once on its way here
+    private static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+                return constraintName != null && constraintName.toLowerCase(Locale.ROOT).contains(Employee.EMAIL_UNIQUE_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+
+    //collects one chunk at a time and keeps the running report
+    private class Importer {
+
+        private final EmployeeImportReport report = new EmployeeImportReport();
+
+        private final List<Employee> employees = new ArrayList<>(commitInterval);
+
+        private final List<Long> lines = new ArrayList<>(commitInterval);
+
+        void add(long line, Employee employee) {
+            String error = tooLongField(employee);
+            if (error != null) {
+                reject(line, error);
+                return;
+            }
+            report.setRows(report.getRows() + 1);
+            employees.add(employee);
+            lines.add(line);
+            if (employees.size() >= commitInterval) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            report.setRows(report.getRows() + 1);
+            report.setInvalid(report.getInvalid() + 1);
+            addError(line, message);
+        }
+
+        EmployeeImportReport finish() {
+            flush();
+            return report;
+        }
+
+        private void flush() {
+            if (employees.isEmpty()) {
+                return;
+            }
+            List<EmployeeBatchResult> results;
+            try {
+                results = employeeService.saveEmployees(employees);
+            } catch (DataIntegrityViolationException e) {
+                //the chunk was rolled back, only the rows that fail again on their own are reported
+                results = saveRowByRow();
+            }
+            for (EmployeeBatchResult result : results) {
+                long line = lines.get(result.getIndex());
+                if (result.getStatus() == EmployeeBatchResult.Status.CREATED) {
+                    report.setCreated(report.getCreated() + 1);
+                } else if (result.getStatus() == EmployeeBatchResult.Status.DUPLICATE) {
+                    report.setDuplicates(report.getDuplicates() + 1);
+                    addError(line, result.getMessage());
+                } else {
+                    report.setInvalid(report.getInvalid() + 1);
+                    addError(line, result.getMessage());
+                }
+            }
+            employees.clear();
+            lines.clear();
+        }
+
+        private List<EmployeeBatchResult> saveRowByRow() {
+            List<EmployeeBatchResult> results = new ArrayList<>(employees.size());
+            for (int index = 0; index < employees.size(); index++) {
+                Employee employee = employees.get(index);
+                try {
+                    EmployeeBatchResult result = employeeService.saveEmployees(List.of(employee)).get(0);
+                    result.setIndex(index);
+                    results.add(result);
+                } catch (DataIntegrityViolationException e) {
+                    results.add(isDuplicateEmail(e)
+                            ? new EmployeeBatchResult(index, EmployeeBatchResult.Status.DUPLICATE, employee, "Employee already exists with given email: " + employee.getEmail())
+                            : new EmployeeBatchResult(index, EmployeeBatchResult.Status.INVALID, employee, "Row violates a database constraint"));
+                }
+            }
+            return results;
+        }
+
+        private void addError(long line, String message) {
+            if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+                report.getErrors().add(new EmployeeImportReport.RowError(line, message));
+            }
+        }
+    }
+
+    //readLine without an upper bound, a line longer than maxLength is cut there and the rest of it skipped
+    private static final class LineReader {
+
+        private final Reader reader;
+
+        private final int maxLength;
+
+        private final char[] buffer = new char[8192];
+
+        private final StringBuilder line = new StringBuilder();
+
+        private int position;
+
+        private int limit;
+
+        private long lineNumber;
+
+        private boolean truncated;
+
+        LineReader(InputStream inputStream, int maxLength) {
+            this.reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+            this.maxLength = maxLength;
+        }
+
+        //the next line without its \n or \r\n, null at the end of the input
+        String readLine() throws IOException {
+            line.setLength(0);
+            truncated = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = reader.read(buffer);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        if (!read) {
+                            return null;
+                        }
+                        break;
+                    }
+                }
+                read = true;
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                append(start, position);
+                if (position < limit) {
+                    position++;
+                    break;
+                }
+            }
+            lineNumber++;
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(--length);
+            }
+            if (length > maxLength) {
+                line.setLength(maxLength);
+                truncated = true;
+            }
+            return line.toString();
+        }
+
+        long getLineNumber() {
+            return lineNumber;
+        }
+
+        //whether the last line was longer than maxLength
+        boolean isTruncated() {
+            return truncated;
+        }
+
+        private void append(int start, int end) {
+            //one more than maxLength so a \r of a line that is exactly maxLength long is still stripped
+            int room = maxLength + 1 - line.length();
+            if (end - start > room) {
+                line.append(buffer, start, Math.max(room, 0));
+                truncated = true;
+            } else {
+                line.append(buffer, start, end - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.densoft.springtesting.service.impl;
+
+import com.densoft.springtesting.model.PurgeJob;
+import com.densoft.springtesting.service.EmployeePurgeService;
+import com.densoft.springtesting.service.EmployeeService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs purges on a single background thread, one job at a time. Each chunk is deleted in its own transaction and
+ * the thread pauses between chunks, so the employees table is never locked for long and regular writes get in.
+ */
+@Service
+public class EmployeePurgeServiceImpl implements EmployeePurgeService, DisposableBean {
+
+    private EmployeeService employeeService;
+
+    private final int chunkSize;
+
+    private final Duration pause;
+
+    //queued and running jobs, they are only dropped once they finished
+    private final Map<String, PurgeJob> activeJobs = new ConcurrentHashMap<>();
+
+    //finished jobs stay visible for a while, then they are dropped
+    private final Cache<String, PurgeJob> finishedJobs = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(1))
+            .maximumSize(1000)
+            .build();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EmployeePurgeServiceImpl(EmployeeService employeeService,
+                                    @Value("${app.purge.chunk-size:1000}") int chunkSize,
+                                    @Value("${app.purge.pause:50ms}") Duration pause) {
+        //a chunk size of 0 would never advance through the ids
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("app.purge.chunk-size must be positive, was " + chunkSize);
+        }
+        this.employeeService = employeeService;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+    }
+
+    @Override
+    public PurgeJob startPurge(List<Long> ids) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        PurgeJob job = new PurgeJob(UUID.randomUUID().toString(), distinctIds.size());
+        activeJobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> purge(job, distinctIds));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    @Override
+    public Optional<PurgeJob> getPurgeJob(String jobId) {
+        PurgeJob job = activeJobs.get(jobId);
+        return Optional.ofNullable(job != null ? job : finishedJobs.getIfPresent(jobId));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void purge(PurgeJob job, List<Long> ids) {
+        job.setStatus(PurgeJob.Status.RUNNING);
+        try {
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                if (from > 0 && !pause.isZero()) {
+                    Thread.sleep(pause.toMillis());
+                }
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                job.setDeleted(job.getDeleted() + employeeService.deleteEmployees(chunk));
+                job.setProcessed(job.getProcessed() + chunk.size());
+            }
+            job.setStatus(PurgeJob.Status.COMPLETED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(job, "Purge interrupted");
+        } catch (RuntimeException e) {
+            fail(job, e.getMessage());
+        } finally {
+            //into the expiring cache before leaving the active jobs, so a lookup in between still finds it
+            finishedJobs.put(job.getId(), job);
+            activeJobs.remove(job.getId());
+        }
+    }
+
+    private static void fail(PurgeJob job, String message) {
+        job.setMessage(message);
+        job.setStatus(PurgeJob.Status.FAILED);
+    }
+}
@@ -1,52 +1,335 @@
 package com.densoft.springtesting.service.impl;
 
-import com.densoft.springtesting.exception.ResourceNotFoundException;
+import com.densoft.springtesting.config.CacheConfig;
+import com.densoft.springtesting.config.EvictionGuardedCache;
+import com.densoft.springtesting.config.MetricsConfig;
+import com.densoft.springtesting.config.ReplicaRoutingDataSource;
+import com.densoft.springtesting.event.EmployeeChangedEvent;
+import com.densoft.springtesting.exception.ResourceAlreadyExistsException;
+import com.densoft.springtesting.exception.VersionConflictException;
 import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeeBatchResult;
+import com.densoft.springtesting.model.EmployeePage;
+import com.densoft.springtesting.model.EmployeeView;
+import com.densoft.springtesting.model.EmployeeViewPage;
 import com.densoft.springtesting.repository.EmployeeRepository;
+import com.densoft.springtesting.search.EmployeeSearchIndex;
+import com.densoft.springtesting.service.EmployeeChangeService;
 import com.densoft.springtesting.service.EmployeeService;
+import com.densoft.springtesting.util.CoalescingLoader;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class EmployeeServiceImpl implements EmployeeService {
 
+    static final int MAX_PAGE_SIZE = 1000;
+
+    static final int DELETE_CHUNK_SIZE = 500;
+
+    //how long a by-id lookup waits for others to share its query, only while another lookup query is running
+    static final Duration LOOKUP_BATCH_WINDOW = Duration.ofMillis(1);
+
+    static final int LOOKUP_BATCH_SIZE = 100;
 
     private EmployeeRepository employeeRepository;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private EmployeeChangeService employeeChangeService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CacheManager cacheManager;
+
+    //flattens bursts of by-id reads, concurrent lookups of one id share a query and lookups of different ids are batched
+    private final CoalescingLoader<Long, Employee> employeeLookups = new CoalescingLoader<>(this::findEmployeesById,
+            LOOKUP_BATCH_WINDOW, LOOKUP_BATCH_SIZE);
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EmployeeSearchIndex employeeSearchIndex,
+                               ApplicationEventPublisher eventPublisher, EmployeeChangeService employeeChangeService,
+                               PlatformTransactionManager transactionManager, CacheManager cacheManager) {
         this.employeeRepository = employeeRepository;
+        this.employeeSearchIndex = employeeSearchIndex;
+        this.eventPublisher = eventPublisher;
+        this.employeeChangeService = employeeChangeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
     }
 
 
+    //writes publish their events inside the transaction, the change outbox records them before it commits
     @Override
+    @Transactional
     public Employee saveEmployee(Employee employee) {
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-        if (savedEmployee.isPresent()) {
-            throw new ResourceNotFoundException("Employee already exists with given email: " + employee.getEmail());
+        //the unique index on email does the duplicate check as part of the insert, also under concurrent creates
+        Employee savedEmployee;
+        try {
+            savedEmployee = employeeRepository.save(employee);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateEmail(e)) {
+                throw new ResourceAlreadyExistsException("Employee already exists with given email: " + employee.getEmail(), e);
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.created(savedEmployee));
+        return savedEmployee;
+    }
+
+    @Override
+    @Transactional
+    public List<EmployeeBatchResult> saveEmployees(List<Employee> employees) {
+        //one IN query for every email in the batch instead of a findByEmail per employee
+        Set<String> emails = employees.stream()
+                .map(Employee::getEmail)
+                .filter(email -> email != null && !email.isBlank())
+                .collect(Collectors.toSet());
+        Set<String> existingEmails = emails.isEmpty() ? Set.of() : employeeRepository.findByEmailIn(emails).stream()
+                .map(employee -> normalizeEmail(employee.getEmail()))
+                .collect(Collectors.toSet());
+
+        List<EmployeeBatchResult> results = new ArrayList<>(employees.size());
+        List<Employee> newEmployees = new ArrayList<>();
+        Set<String> batchEmails = new HashSet<>();
+        for (int index = 0; index < employees.size(); index++) {
+            Employee employee = employees.get(index);
+            if (!hasRequiredFields(employee)) {
+                results.add(new EmployeeBatchResult(index, EmployeeBatchResult.Status.INVALID, employee, "firstName, lastName and email are required"));
+            } else if (existingEmails.contains(normalizeEmail(employee.getEmail())) || !batchEmails.add(normalizeEmail(employee.getEmail()))) {
+                results.add(new EmployeeBatchResult(index, EmployeeBatchResult.Status.DUPLICATE, employee, "Employee already exists with given email: " + employee.getEmail()));
+            } else {
+                newEmployees.add(employee);
+                results.add(new EmployeeBatchResult(index, EmployeeBatchResult.Status.CREATED, employee, null));
+            }
         }
-        return employeeRepository.save(employee);
+        //ids are copied onto the employees already referenced by the results
+        employeeRepository.insertAll(newEmployees);
+        newEmployees.forEach(employee -> eventPublisher.publishEvent(EmployeeChangedEvent.created(employee)));
+        return results;
     }
 
+    //reads run in read-only transactions, hibernate then skips flushing and keeps no dirty-checking snapshots
     @Override
+    @Transactional(readOnly = true)
     public List<Employee> getAllEmployees() {
         return employeeRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployees(long after, int limit) {
+        int pageSize = pageSize(limit);
+        return toPage(employeeRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, pageSize + 1)), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeViewPage getEmployeeViews(long after, int limit) {
+        int pageSize = pageSize(limit);
+        List<EmployeeView> views = employeeRepository.findViewsByIdGreaterThan(after, PageRequest.of(0, pageSize + 1));
+        if (views.size() <= pageSize) {
+            return new EmployeeViewPage(views, null);
+        }
+        List<EmployeeView> content = new ArrayList<>(views.subList(0, pageSize));
+        return new EmployeeViewPage(content, content.get(pageSize - 1).getId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeesByName(String lastName, String firstName, long after, int limit) {
+        int pageSize = pageSize(limit);
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        List<Employee> employees = firstName == null
+                ? employeeRepository.findByLastNameAndIdGreaterThanOrderByIdAsc(lastName, after, pageRequest)
+                : employeeRepository.findByLastNameAndFirstNameAndIdGreaterThanOrderByIdAsc(lastName, firstName, after, pageRequest);
+        return toPage(employees, pageSize);
+    }
+
+    @Override
+    public List<Employee> searchEmployees(String query, int limit) {
+        return employeeSearchIndex.search(query, pageSize(limit));
+    }
+
+    @Override
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        employeeRepository.streamAll(consumer);
+    }
+
     @Override
     public Optional<Employee> getEmployeeById(long id) {
-        return employeeRepository.findById(id);
+        //a request that reads its own writes must not join a batch that another request loads from a replica,
+        //the cached findById loads its misses from the primary, single-id reads never reach a replica (see ReplicaRoutingDataSource)
+        if (ReplicaRoutingDataSource.isCurrentRequestPinned()) {
+            return employeeRepository.findById(id);
+        }
+        return employeeLookups.load(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> getEmployeeVersion(long id) {
+        return employeeRepository.findVersionById(id);
+    }
+
+    //the change feed's offset moves with every committed change and is read without a query. The relay may not have
+    //seen a write of this client yet, a client that reads its own writes gets no version and so never a stale 304
+    @Override
+    public Optional<Long> getEmployeesVersion() {
+        if (ReplicaRoutingDataSource.isCurrentRequestPinned()) {
+            return Optional.empty();
+        }
+        return Optional.of(employeeChangeService.getOffset());
+    }
+
+    @Override
+    @Transactional
     public Employee updateEmployee(Employee updatedEmployee) {
-        return employeeRepository.save(updatedEmployee);
+        Employee savedEmployee = employeeRepository.save(updatedEmployee);
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(savedEmployee));
+        return savedEmployee;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Employee> updateEmployee(long id, Employee employee, Long expectedVersion) {
+        int updatedRows;
+        try {
+            updatedRows = expectedVersion == null
+                    ? employeeRepository.updateById(id, employee.getFirstName(), employee.getLastName(), employee.getEmail())
+                    : employeeRepository.updateByIdAndVersion(id, expectedVersion, employee.getFirstName(), employee.getLastName(), employee.getEmail());
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateEmail(e)) {
+                throw new ResourceAlreadyExistsException("Employee already exists with given email: " + employee.getEmail(), e);
+            }
+            throw e;
+        }
+        if (updatedRows == 0) {
+            //only a failed conditional update needs to tell a missing employee from a stale version
+            if (expectedVersion != null && employeeRepository.existsById(id)) {
+                throw new VersionConflictException("Employee " + id + " has been modified, expected version: " + expectedVersion);
+            }
+            return Optional.empty();
+        }
+        //the row is locked until commit, its new version is read from the primary key index and not through the
+        //cached findById, which must not see the uncommitted row
+        long version = expectedVersion == null ? employeeRepository.findVersionById(id).orElseThrow() : expectedVersion + 1;
+        Employee updatedEmployee = Employee.builder()
+                .id(id)
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(version)
+                .build();
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(updatedEmployee));
+        return Optional.of(updatedEmployee);
     }
 
     @Override
     public void deleteEmployee(long id) {
-        employeeRepository.deleteById(id);
+        deleteEmployees(List.of(id));
+    }
+
+    @Override
+    public int deleteEmployees(Collection<Long> ids) {
+        //every chunk is its own short transaction so a large delete never locks many rows at once
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size()));
+            deleted += transactionTemplate.execute(status -> {
+                //ids that do not exist get no DELETED change, the consumers of the feed never had them
+                List<Long> existingIds = employeeRepository.findIdsForUpdate(chunk);
+                if (existingIds.isEmpty()) {
+                    return 0;
+                }
+                int deletedRows = employeeRepository.deleteByIdIn(existingIds);
+                existingIds.forEach(id -> eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id)));
+                return deletedRows;
+            });
+        }
+        return deleted;
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    //the page was fetched with one extra row to find out whether there is a next page without a COUNT query
+    private static EmployeePage toPage(List<Employee> employees, int pageSize) {
+        if (employees.size() <= pageSize) {
+            return new EmployeePage(employees, null);
+        }
+        List<Employee> content = new ArrayList<>(employees.subList(0, pageSize));
+        return new EmployeePage(content, content.get(pageSize - 1).getId());
+    }
+
+    private static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException) {
+            String constraintName = ((ConstraintViolationException) e.getCause()).getConstraintName();
+            //mysql reports employees.uk_employees_email, other databases add their own decoration
+            return constraintName != null && constraintName.toLowerCase(Locale.ROOT).contains(Employee.EMAIL_UNIQUE_CONSTRAINT);
+        }
+        return false;
+    }
+
+    private static boolean hasRequiredFields(Employee employee) {
+        return employee != null
+                && employee.getFirstName() != null && !employee.getFirstName().isBlank()
+                && employee.getLastName() != null && !employee.getLastName().isBlank()
+                && employee.getEmail() != null && !employee.getEmail().isBlank();
+    }
+
+    //MySQL compares emails case-insensitively, so duplicates are detected the same way
+    private static String normalizeEmail(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    //a lone id goes through the cached findById, a batch looks every id up in the same cache and loads only the
+    //misses with one IN query, which are cached in turn
+    private Map<Long, Employee> findEmployeesById(Set<Long> ids) {
+        if (ids.size() == 1) {
+            Long id = ids.iterator().next();
+            return employeeRepository.findById(id).map(employee -> Map.of(id, employee)).orElse(Map.of());
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID);
+        if (cache instanceof TransactionAwareCacheDecorator) {
+            cache = ((TransactionAwareCacheDecorator) cache).getTargetCache();
+        }
+        if (cache instanceof EvictionGuardedCache) {
+            return ((EvictionGuardedCache) cache).getAll(ids, this::loadEmployeesById);
+        }
+        return loadEmployeesById(ids);
+    }
+
+    private Map<Long, Employee> loadEmployeesById(Set<Long> ids) {
+        return employeeRepository.loadAllById(ids).stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
     }
 }
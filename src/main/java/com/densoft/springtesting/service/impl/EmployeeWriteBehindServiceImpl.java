@@ -0,0 +1,308 @@
+package com.densoft.springtesting.service.impl;
+
+import com.densoft.springtesting.exception.InvalidRequestException;
+import com.densoft.springtesting.exception.ResourceAlreadyExistsException;
+import com.densoft.springtesting.exception.WriteLogFullException;
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeeBatchResult;
+import com.densoft.springtesting.model.EmployeeWrite;
+import com.densoft.springtesting.model.WriteBehindCheckpoint;
+import com.densoft.springtesting.repository.WriteBehindCheckpointRepository;
+import com.densoft.springtesting.service.EmployeeService;
+import com.densoft.springtesting.service.EmployeeWriteBehindService;
+import com.densoft.springtesting.util.AppendOnlyLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in (app.write-behind.enabled=true) write path for bursts of creates and updates. A write is acknowledged
+ * once it is forced to the local {@link AppendOnlyLog}, a background thread flushes the log to the database in
+ * batches of one transaction each.
+ * <p>
+ * Guarantees:
+ * <ul>
+ * <li>Durability: an acknowledged write survives a crash, the log is replayed on startup. The log is local, it is
+ * lost with the disk of this instance.</li>
+ * <li>Visibility: reads, the search index and the other endpoints only see a write after its batch committed,
+ * usually within app.write-behind.flush-interval. There is no read-your-writes.</li>
+ * <li>Ordering: writes are applied in log order. Consecutive creates are inserted together and of consecutive
+ * updates of the same employee only the last one is written, nothing is moved past a write of another kind, so a
+ * create can use an email that an earlier update freed. Of several creates with the same email the first one wins,
+ * as it does for direct writes.</li>
+ * <li>Delivery: once. Every batch stores the sequence number of its last write in write_behind_checkpoints within
+ * its own transaction, writes up to it are skipped when the log is replayed after a crash. A create is not applied
+ * twice even when a later update changed its email.</li>
+ * <li>Failures: a write the database or the service rejects, such as an update to a taken email, is logged and
+ * dropped. Any other error keeps the batch in the log and it is retried on the next flush, so later writes wait behind it.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.write-behind.enabled", havingValue = "true")
+//the write log is replayed on startup, also when the other beans are created lazily
+@Lazy(false)
+public class EmployeeWriteBehindServiceImpl implements EmployeeWriteBehindService, DisposableBean {
+
+    private EmployeeService employeeService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final AppendOnlyLog writeLog;
+
+    private final WriteBehindCheckpointRepository checkpointRepository;
+
+    //last write committed to the database, read on the first flush, only the writer thread uses it
+    private long appliedSequence = -1;
+
+    private final int batchSize;
+
+    private final Duration fullTimeout;
+
+    //appended to the write log but not flushed yet, in log order, only the writer thread removes entries
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    private final Object appendLock = new Object();
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EmployeeWriteBehindServiceImpl(EmployeeService employeeService,
+                                          PlatformTransactionManager transactionManager,
+                                          WriteBehindCheckpointRepository checkpointRepository,
+                                          ObjectMapper objectMapper,
+                                          @Value("${app.write-behind.log-file:data/employee-writes.log}") String logFile,
+                                          @Value("${app.write-behind.log-size:64MB}") DataSize logSize,
+                                          @Value("${app.write-behind.batch-size:500}") int batchSize,
+                                          @Value("${app.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                          @Value("${app.write-behind.full-timeout:5s}") Duration fullTimeout) {
+        this.employeeService = employeeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.checkpointRepository = checkpointRepository;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.fullTimeout = fullTimeout;
+        try {
+            this.writeLog = new AppendOnlyLog(Path.of(logFile), Math.toIntExact(logSize.toBytes()));
+            for (AppendOnlyLog.Record record : writeLog.getUnappliedRecords()) {
+                pendingWrites.add(new PendingWrite(record.getSequence(), objectMapper.readValue(record.getPayload(), EmployeeWrite.class)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not open write log " + logFile, e);
+        }
+        if (!pendingWrites.isEmpty()) {
+            log.info("Replaying {} employee writes from {}", pendingWrites.size(), logFile);
+        }
+        writer.scheduleWithFixedDelay(this::flushPendingWrites, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void saveEmployee(Employee employee) {
+        requireFields(employee);
+        append(new EmployeeWrite(EmployeeWrite.Type.CREATE, null, copyOf(employee)));
+    }
+
+    @Override
+    public void updateEmployee(long id, Employee employee) {
+        requireFields(employee);
+        append(new EmployeeWrite(EmployeeWrite.Type.UPDATE, id, copyOf(employee)));
+    }
+
+    @Override
+    public void destroy() throws IOException, InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(30, TimeUnit.SECONDS);
+        //whatever can not be flushed now is replayed on the next start
+        flushPendingWrites();
+        writeLog.close();
+    }
+
+    //applies at most one batch and returns the number of writes taken off the log
+    synchronized int flush() {
+        if (appliedSequence < 0) {
+            appliedSequence = checkpointRepository.findById(writeLog.getId().toString())
+                    .map(WriteBehindCheckpoint::getAppliedSequence)
+                    .orElse(0L);
+        }
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        Iterator<PendingWrite> iterator = pendingWrites.iterator();
+        while (batch.size() < batchSize && iterator.hasNext()) {
+            batch.add(iterator.next());
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        //committed before a crash or a failed flush, but not checkpointed in the log
+        List<PendingWrite> unapplied = batch.stream()
+                .filter(pendingWrite -> pendingWrite.getSequence() > appliedSequence)
+                .collect(Collectors.toList());
+        if (!unapplied.isEmpty()) {
+            try {
+                applyInTransaction(unapplied);
+            } catch (RuntimeException e) {
+                if (!isRejection(e)) {
+                    throw e;
+                }
+                //one rejected write must not hold back the rest of the batch
+                for (PendingWrite pendingWrite : unapplied) {
+                    try {
+                        applyInTransaction(List.of(pendingWrite));
+                    } catch (RuntimeException rejected) {
+                        if (!isRejection(rejected)) {
+                            throw rejected;
+                        }
+                        log.warn("Dropping employee write {}: {}", pendingWrite.getSequence(), NestedExceptionUtils.getMostSpecificCause(rejected).getMessage());
+                    }
+                }
+            }
+        }
+        batch.forEach(pendingWrite -> pendingWrites.poll());
+        writeLog.checkpoint(batch.get(batch.size() - 1).getSequence());
+        return batch.size();
+    }
+
+    private void flushPendingWrites() {
+        try {
+            while (flush() == batchSize) {
+                //keep going until the backlog is drained
+            }
+        } catch (RuntimeException e) {
+            log.warn("Flushing employee writes failed, retrying with the next flush", e);
+        }
+    }
+
+    private void applyInTransaction(List<PendingWrite> writes) {
+        long sequence = writes.get(writes.size() - 1).getSequence();
+        transactionTemplate.executeWithoutResult(status -> {
+            apply(writes);
+            checkpointRepository.save(new WriteBehindCheckpoint(writeLog.getId().toString(), sequence));
+        });
+        appliedSequence = sequence;
+    }
+
+    private void apply(List<PendingWrite> batch) {
+        List<Employee> creates = new ArrayList<>();
+        Long updatedId = null;
+        Employee update = null;
+        for (PendingWrite pendingWrite : batch) {
+            EmployeeWrite write = pendingWrite.getWrite();
+            if (write.getType() == EmployeeWrite.Type.CREATE) {
+                applyUpdate(updatedId, update);
+                updatedId = null;
+                update = null;
+                creates.add(write.getEmployee());
+            } else {
+                applyCreates(creates);
+                //updates overwrite every field, of consecutive ones for the same employee only the last is written
+                if (updatedId != null && !updatedId.equals(write.getId())) {
+                    applyUpdate(updatedId, update);
+                }
+                updatedId = write.getId();
+                update = write.getEmployee();
+            }
+        }
+        applyCreates(creates);
+        applyUpdate(updatedId, update);
+    }
+
+    private void applyCreates(List<Employee> creates) {
+        if (creates.isEmpty()) {
+            return;
+        }
+        employeeService.saveEmployees(List.copyOf(creates)).stream()
+                .filter(result -> result.getStatus() != EmployeeBatchResult.Status.CREATED)
+                .forEach(result -> log.warn("Skipping employee create: {}", result.getMessage()));
+        creates.clear();
+    }
+
+    private void applyUpdate(Long id, Employee employee) {
+        if (id != null && employeeService.updateEmployee(id, employee, null).isEmpty()) {
+            log.warn("Skipping update of employee {}, it does not exist", id);
+        }
+    }
+
+    //the service turns constraint violations into its own exceptions, retrying those would only fail again
+    private static boolean isRejection(RuntimeException e) {
+        return e instanceof DataIntegrityViolationException
+                || e instanceof ResourceAlreadyExistsException
+                || e instanceof InvalidRequestException;
+    }
+
+    private void append(EmployeeWrite write) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(write);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        //sequence numbers and queue order have to match
+        synchronized (appendLock) {
+            long sequence;
+            try {
+                sequence = writeLog.append(payload, fullTimeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WriteLogFullException("Interrupted while waiting for space in the write log", e);
+            }
+            if (sequence < 0) {
+                throw new WriteLogFullException("Write log is full, the database is not keeping up");
+            }
+            pendingWrites.add(new PendingWrite(sequence, write));
+        }
+    }
+
+    private static void requireFields(Employee employee) {
+        if (employee == null
+                || employee.getFirstName() == null || employee.getFirstName().isBlank()
+                || employee.getLastName() == null || employee.getLastName().isBlank()
+                || employee.getEmail() == null || employee.getEmail().isBlank()) {
+            throw new InvalidRequestException("firstName, lastName and email are required");
+        }
+    }
+
+    //ids and versions are assigned by the database
+    private static Employee copyOf(Employee employee) {
+        return Employee.builder()
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .build();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class PendingWrite {
+        private final long sequence;
+        private final EmployeeWrite write;
+    }
+}
@@ -0,0 +1,196 @@
+package com.densoft.springtesting.service.impl;
+
+import com.densoft.springtesting.exception.InvalidRequestException;
+import com.densoft.springtesting.exception.ResourceAlreadyExistsException;
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.IdempotencyRecord;
+import com.densoft.springtesting.model.IdempotentCreate;
+import com.densoft.springtesting.repository.IdempotencyRecordRepository;
+import com.densoft.springtesting.service.EmployeeService;
+import com.densoft.springtesting.service.IdempotentEmployeeService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates employees at most once per Idempotency-Key. Outcomes are kept in a bounded, expiring in-memory store,
+ * a retry gets the original employee, or the original conflict, without a database round trip. Concurrent requests
+ * with the same key wait for the first one instead of racing it to the database. Creates in flight are kept apart
+ * from the bounded store, so its size limit can never evict one and let a duplicate run the insert again.
+ * <p>
+ * The in-memory store is per instance and lost on restart. With app.idempotency.durable=true the key is also
+ * written to the idempotency_keys table in the transaction of the insert, so retries that reach another instance
+ * or come after a restart are answered from there.
+ */
+@Service
+public class IdempotentEmployeeServiceImpl implements IdempotentEmployeeService {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private EmployeeService employeeService;
+
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration keyTtl;
+
+    private final boolean durable;
+
+    private final Cache<String, KeyedCreate> creates;
+
+    //moved to creates once their outcome is final, only as many as there are requests running
+    private final ConcurrentHashMap<String, KeyedCreate> pendingCreates = new ConcurrentHashMap<>();
+
+    public IdempotentEmployeeServiceImpl(EmployeeService employeeService,
+                                         IdempotencyRecordRepository idempotencyRecordRepository,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${app.idempotency.max-keys:100000}") long maxKeys,
+                                         @Value("${app.idempotency.key-ttl:24h}") Duration keyTtl,
+                                         @Value("${app.idempotency.durable:false}") boolean durable) {
+        this.employeeService = employeeService;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.keyTtl = keyTtl;
+        this.durable = durable;
+        this.creates = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(keyTtl)
+                .build();
+    }
+
+    @Override
+    public IdempotentCreate saveEmployee(String idempotencyKey, Employee employee) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException("Idempotency-Key must have 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = requestHash(employee);
+        KeyedCreate earlierCreate = creates.getIfPresent(idempotencyKey);
+        if (earlierCreate != null) {
+            return replay(earlierCreate, requestHash);
+        }
+        KeyedCreate create = new KeyedCreate(requestHash);
+        earlierCreate = pendingCreates.putIfAbsent(idempotencyKey, create);
+        if (earlierCreate != null) {
+            return replay(earlierCreate, requestHash);
+        }
+        //the earlier create of the key may have finished between the two lookups
+        earlierCreate = creates.getIfPresent(idempotencyKey);
+        if (earlierCreate != null) {
+            pendingCreates.remove(idempotencyKey, create);
+            return replay(earlierCreate, requestHash);
+        }
+        try {
+            IdempotentCreate result = durable
+                    ? saveDurably(idempotencyKey, requestHash, employee)
+                    : new IdempotentCreate(employeeService.saveEmployee(employee), false);
+            create.outcome.complete(result.getEmployee());
+            creates.put(idempotencyKey, create);
+            return result;
+        } catch (ResourceAlreadyExistsException | InvalidRequestException e) {
+            //a retry would fail the same way, so the failure is replayed like a success
+            create.outcome.completeExceptionally(e);
+            creates.put(idempotencyKey, create);
+            throw e;
+        } catch (Throwable e) {
+            //anything else may be transient, the next retry runs the create again
+            create.outcome.completeExceptionally(e);
+            throw e;
+        } finally {
+            //stored before it is removed here, a duplicate always finds the create in one of the two
+            pendingCreates.remove(idempotencyKey, create);
+        }
+    }
+
+    @Scheduled(initialDelay = 1, fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeExpiredKeys() {
+        if (durable) {
+            idempotencyRecordRepository.deleteCreatedBefore(Instant.now().minus(keyTtl));
+        }
+    }
+
+    private IdempotentCreate saveDurably(String idempotencyKey, String requestHash, Employee employee) {
+        Optional<IdempotencyRecord> record = findRecord(idempotencyKey);
+        if (record.isPresent()) {
+            return replay(record.get(), requestHash);
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                Employee savedEmployee = employeeService.saveEmployee(employee);
+                idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(idempotencyKey, requestHash, savedEmployee.getId(), Instant.now()));
+                return new IdempotentCreate(savedEmployee, false);
+            });
+        } catch (DataIntegrityViolationException | ResourceAlreadyExistsException e) {
+            //another instance committed the same key first, its employee then also took the email
+            Optional<IdempotencyRecord> winner = findRecord(idempotencyKey);
+            if (winner.isPresent()) {
+                return replay(winner.get(), requestHash);
+            }
+            throw e;
+        }
+    }
+
+    private Optional<IdempotencyRecord> findRecord(String idempotencyKey) {
+        Instant oldest = Instant.now().minus(keyTtl);
+        return idempotencyRecordRepository.findById(idempotencyKey)
+                .filter(record -> record.getCreatedAt().isAfter(oldest));
+    }
+
+    private IdempotentCreate replay(IdempotencyRecord record, String requestHash) {
+        requireSameRequest(record.getRequestHash(), requestHash);
+        return employeeService.getEmployeeById(record.getEmployeeId())
+                .map(employee -> new IdempotentCreate(employee, true))
+                .orElseThrow(() -> new ResourceAlreadyExistsException("Employee created with this Idempotency-Key was deleted"));
+    }
+
+    private static IdempotentCreate replay(KeyedCreate create, String requestHash) {
+        requireSameRequest(create.requestHash, requestHash);
+        try {
+            return new IdempotentCreate(create.outcome.join(), true);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static void requireSameRequest(String originalHash, String requestHash) {
+        if (!originalHash.equals(requestHash)) {
+            throw new InvalidRequestException("Idempotency-Key was already used for a different employee");
+        }
+    }
+
+    private static String requestHash(Employee employee) {
+        String request = employee.getFirstName() + '\n' + employee.getLastName() + '\n' + employee.getEmail();
+        return DigestUtils.md5DigestAsHex(request.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //the first request for a key completes the outcome, concurrent duplicates wait on it
+    private static final class KeyedCreate {
+        private final String requestHash;
+        private final CompletableFuture<Employee> outcome = new CompletableFuture<>();
+
+        private KeyedCreate(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+}
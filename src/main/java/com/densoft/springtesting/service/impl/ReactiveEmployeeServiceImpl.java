@@ -0,0 +1,105 @@
+package com.densoft.springtesting.service.impl;
+
+import com.densoft.springtesting.config.CacheConfig;
+import com.densoft.springtesting.event.EmployeeChangedEvent;
+import com.densoft.springtesting.exception.ResourceAlreadyExistsException;
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.repository.ReactiveEmployeeRepository;
+import com.densoft.springtesting.service.ReactiveEmployeeService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Locale;
+
+
+@Service
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    private ReactiveEmployeeRepository reactiveEmployeeRepository;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private CacheManager cacheManager;
+
+    public ReactiveEmployeeServiceImpl(ReactiveEmployeeRepository reactiveEmployeeRepository, ApplicationEventPublisher eventPublisher,
+                                       CacheManager cacheManager) {
+        this.reactiveEmployeeRepository = reactiveEmployeeRepository;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+    }
+
+    //same events as the blocking service so the search index and the change outbox also follow reactive writes
+    @Override
+    public Mono<Employee> saveEmployee(Employee employee) {
+        return reactiveEmployeeRepository.save(employee)
+                .onErrorMap(this::isDuplicateEmail, e -> duplicateEmail(employee, e))
+                .flatMap(saved -> afterChange(EmployeeChangedEvent.created(saved)).thenReturn(saved));
+    }
+
+    @Override
+    public Flux<Employee> getAllEmployees() {
+        return reactiveEmployeeRepository.findAllOrderById();
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeById(long id) {
+        return reactiveEmployeeRepository.findById(id);
+    }
+
+    //the current row is read first, the cached lookup by its old email has to go as well
+    @Override
+    public Mono<Employee> updateEmployee(long id, Employee employee) {
+        return reactiveEmployeeRepository.findById(id)
+                .flatMap(current -> reactiveEmployeeRepository.updateById(id, employee.getFirstName(), employee.getLastName(), employee.getEmail())
+                        .onErrorMap(this::isDuplicateEmail, e -> duplicateEmail(employee, e))
+                        .filter(updatedRows -> updatedRows > 0)
+                        .flatMap(updatedRows -> reactiveEmployeeRepository.findById(id))
+                        .flatMap(updated -> afterChange(EmployeeChangedEvent.updated(updated), current.getEmail(), updated.getEmail())
+                                .thenReturn(updated)));
+    }
+
+    //an id that is not there, or that a concurrent delete removed first, publishes nothing
+    @Override
+    public Mono<Void> deleteEmployee(long id) {
+        return reactiveEmployeeRepository.findById(id)
+                .flatMap(current -> reactiveEmployeeRepository.deleteRowById(id)
+                        .filter(deletedRows -> deletedRows > 0)
+                        .flatMap(deletedRows -> afterChange(EmployeeChangedEvent.deleted(id), current.getEmail())));
+    }
+
+    //R2DBC writes pass the caching repository, so the shared caches are evicted here once the write is done. The
+    //listeners write the change outbox with blocking JDBC, they run on the bounded elastic scheduler and never on
+    //an event loop thread
+    private Mono<Void> afterChange(EmployeeChangedEvent event, String... emails) {
+        return Mono.fromRunnable(() -> {
+            evict(CacheConfig.EMPLOYEES_BY_ID, event.getId());
+            for (String email : emails) {
+                evict(CacheConfig.EMPLOYEES_BY_EMAIL, email);
+            }
+            eventPublisher.publishEvent(event);
+        }).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private static ResourceAlreadyExistsException duplicateEmail(Employee employee, Throwable e) {
+        return new ResourceAlreadyExistsException("Employee already exists with given email: " + employee.getEmail(), e);
+    }
+
+    private boolean isDuplicateEmail(Throwable e) {
+        return e instanceof DataIntegrityViolationException
+                && e.getMessage() != null
+                && e.getMessage().toLowerCase(Locale.ROOT).contains(Employee.EMAIL_UNIQUE_CONSTRAINT);
+    }
+}
@@ -0,0 +1,235 @@
+package com.densoft.springtesting.util;
+
+import lombok.Value;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Durable append-only log in a fixed size memory-mapped file used as a ring buffer. Every record is forced to disk
+ * before {@link #append} returns, so an appended record survives a crash of the process or the machine.
+ * <p>
+ * Layout: a header holding the sequence number of the last record the consumer has applied (the checkpoint), the
+ * offset of the first record after it (the head) and a random id of the log, followed by records of length, CRC32,
+ * sequence number and payload. Records are written at the tail and wrap around to the start once the end is reached,
+ * a length of -1 marks the wrap. A checkpoint moves the head past the applied records and their space is written
+ * again, so a consumer that keeps up frees space continuously and never has to drain the log completely. Opening
+ * the log scans the consecutively numbered records with valid checksums from the head, stale records from an
+ * earlier lap have lower sequence numbers and a torn record fails its checksum, so both end the scan.
+ */
+public class AppendOnlyLog implements Closeable {
+
+    private static final int HEADER_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    private static final int HEAD_OFFSET = Long.BYTES;
+
+    private static final int ID_OFFSET = HEAD_OFFSET + 2 * Integer.BYTES;
+
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static final int WRAP = -1;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int capacity;
+
+    private final UUID id;
+
+    private final List<Record> unappliedRecords;
+
+    //offset of the first unapplied record, equal to tail when there is none
+    private int head;
+
+    //offset the next record is written at
+    private int tail;
+
+    private long lastSequence;
+
+    private long checkpoint;
+
+    public AppendOnlyLog(Path file, int capacity) throws IOException {
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        this.capacity = capacity;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        this.checkpoint = buffer.getLong(0);
+        this.head = buffer.getInt(HEAD_OFFSET);
+        if (head < HEADER_SIZE || head >= capacity) {
+            head = HEADER_SIZE;
+        }
+        UUID storedId = new UUID(buffer.getLong(ID_OFFSET), buffer.getLong(ID_OFFSET + Long.BYTES));
+        if (storedId.getMostSignificantBits() == 0 && storedId.getLeastSignificantBits() == 0) {
+            storedId = UUID.randomUUID();
+            buffer.putLong(ID_OFFSET, storedId.getMostSignificantBits());
+            buffer.putLong(ID_OFFSET + Long.BYTES, storedId.getLeastSignificantBits());
+            buffer.force(0, HEADER_SIZE);
+        }
+        this.id = storedId;
+        this.unappliedRecords = scan();
+    }
+
+    //stays the same for the life of the file, consumers can keep their own checkpoint per log under it
+    public UUID getId() {
+        return id;
+    }
+
+    //records appended before the log was opened and not checkpointed yet, in sequence order
+    public List<Record> getUnappliedRecords() {
+        return unappliedRecords;
+    }
+
+    /**
+     * Appends the payload and returns its sequence number, or -1 when the consumer did not free enough space
+     * within the timeout.
+     */
+    public synchronized long append(byte[] payload, Duration timeout) throws InterruptedException {
+        int size = RECORD_HEADER_SIZE + payload.length;
+        if (HEADER_SIZE + size > capacity) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit a log of " + capacity + " bytes");
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int position;
+        while ((position = positionFor(size)) < 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return -1;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        if (position != tail && capacity - tail >= RECORD_HEADER_SIZE) {
+            buffer.putInt(tail, WRAP);
+            buffer.force(tail, Integer.BYTES);
+        }
+        long sequence = lastSequence + 1;
+        buffer.putInt(position + Integer.BYTES, checksum(sequence, payload));
+        buffer.putLong(position + 2 * Integer.BYTES, sequence);
+        buffer.put(position + RECORD_HEADER_SIZE, payload);
+        buffer.putInt(position, payload.length);
+        buffer.force(position, size);
+        tail = position + size;
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    //marks every record up to the sequence number as applied, they are not handed out again after a restart
+    public synchronized void checkpoint(long sequence) {
+        checkpoint = sequence;
+        if (checkpoint >= lastSequence) {
+            head = HEADER_SIZE;
+            tail = HEADER_SIZE;
+        } else {
+            while (head != tail) {
+                if (wrapsAt(head)) {
+                    head = HEADER_SIZE;
+                } else if (buffer.getLong(head + 2 * Integer.BYTES) <= checkpoint) {
+                    head += RECORD_HEADER_SIZE + buffer.getInt(head);
+                } else {
+                    break;
+                }
+            }
+        }
+        writeHeader();
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    //where a record of the size goes, -1 when it would overwrite unapplied records. The tail never catches up
+    //with the head, head == tail always means the log is empty
+    private int positionFor(int size) {
+        if (tail >= head) {
+            if (tail + size <= capacity) {
+                return tail;
+            }
+            return head > HEADER_SIZE + size ? HEADER_SIZE : -1;
+        }
+        return tail + size < head ? tail : -1;
+    }
+
+    private boolean wrapsAt(int offset) {
+        return capacity - offset < RECORD_HEADER_SIZE || buffer.getInt(offset) == WRAP;
+    }
+
+    private void writeHeader() {
+        buffer.putLong(0, checkpoint);
+        buffer.putInt(HEAD_OFFSET, head);
+        buffer.force(0, HEADER_SIZE);
+    }
+
+    private List<Record> scan() {
+        List<Record> records = new ArrayList<>();
+        int offset = head;
+        //end of the last valid record, a wrap that no record follows is not taken
+        int end = head;
+        boolean wrapped = false;
+        while (true) {
+            if (wrapsAt(offset)) {
+                if (wrapped) {
+                    break;
+                }
+                offset = HEADER_SIZE;
+                wrapped = true;
+                continue;
+            }
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + RECORD_HEADER_SIZE + length > capacity) {
+                break;
+            }
+            long sequence = buffer.getLong(offset + 2 * Integer.BYTES);
+            if (sequence != checkpoint + records.size() + 1) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(offset + RECORD_HEADER_SIZE, payload);
+            if (buffer.getInt(offset + Integer.BYTES) != checksum(sequence, payload)) {
+                break;
+            }
+            records.add(new Record(sequence, payload));
+            offset += RECORD_HEADER_SIZE + length;
+            end = offset;
+        }
+        lastSequence = checkpoint + records.size();
+        if (records.isEmpty()) {
+            head = HEADER_SIZE;
+            tail = HEADER_SIZE;
+            writeHeader();
+        } else {
+            tail = end;
+        }
+        return List.copyOf(records);
+    }
+
+    private static int checksum(long sequence, byte[] payload) {
+        CRC32 crc = new CRC32();
+        for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+            crc.update((int) (sequence >>> shift));
+        }
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    @Value
+    public static class Record {
+        long sequence;
+        byte[] payload;
+    }
+}
@@ -0,0 +1,140 @@
+package com.densoft.springtesting.util;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent lookups by key without locks. A lookup for a key that is already being loaded waits for
+ * that load instead of starting another one (single-flight). Lookups for other keys join the open batch, and all
+ * keys of a batch are loaded with one call of the batch function.
+ * <p>
+ * There is no thread of its own: the caller that opens a batch loads it, the others wait for its result. The
+ * opening caller only waits for more keys while another batch is loading, so a lookup under no load is not
+ * delayed. Nothing is kept once a batch completed, caching is left to the batch function.
+ */
+public class CoalescingLoader<K, V> {
+
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    private final ConcurrentHashMap<K, CompletableFuture<Optional<V>>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicReference<Batch<K>> openBatch = new AtomicReference<>();
+
+    private final AtomicInteger loadingBatches = new AtomicInteger();
+
+    public CoalescingLoader(Function<Set<K>, Map<K, V>> batchFunction, Duration window, int maxBatchSize) {
+        this.batchFunction = batchFunction;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Optional<V> load(K key) {
+        CompletableFuture<Optional<V>> result = new CompletableFuture<>();
+        CompletableFuture<Optional<V>> sharedResult = inFlight.putIfAbsent(key, result);
+        if (sharedResult != null) {
+            return join(sharedResult);
+        }
+        while (true) {
+            Batch<K> batch = openBatch.get();
+            if (batch != null && batch.add(key)) {
+                return join(result);
+            }
+            //the open batch is full or being loaded, start the next one
+            Batch<K> nextBatch = new Batch<>(maxBatchSize);
+            nextBatch.add(key);
+            if (openBatch.compareAndSet(batch, nextBatch)) {
+                loadBatch(nextBatch);
+                return join(result);
+            }
+        }
+    }
+
+    private void loadBatch(Batch<K> batch) {
+        if (windowNanos > 0 && loadingBatches.get() > 0) {
+            LockSupport.parkNanos(windowNanos);
+        }
+        openBatch.compareAndSet(batch, null);
+        Set<K> keys = batch.close();
+        loadingBatches.incrementAndGet();
+        Map<K, V> values = null;
+        Throwable failure = null;
+        try {
+            values = batchFunction.apply(keys);
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            loadingBatches.decrementAndGet();
+            //every waiter is completed whatever the batch function did, a key left in flight would block its lookups
+            //forever. Removed before completing, a later lookup must not get a result read before it arrived
+            for (K key : keys) {
+                CompletableFuture<Optional<V>> result = inFlight.remove(key);
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(Optional.ofNullable(values == null ? null : values.get(key)));
+                }
+            }
+        }
+    }
+
+    private static <V> Optional<V> join(CompletableFuture<Optional<V>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Batch<K> {
+        private final AtomicReferenceArray<K> keys;
+        private final AtomicInteger reserved = new AtomicInteger();
+
+        private Batch(int capacity) {
+            this.keys = new AtomicReferenceArray<>(capacity);
+        }
+
+        private boolean add(K key) {
+            int slot = reserved.getAndIncrement();
+            if (slot >= keys.length()) {
+                return false;
+            }
+            keys.set(slot, key);
+            return true;
+        }
+
+        //no key can be added afterwards, keys with a reserved slot are waited for
+        private Set<K> close() {
+            int size = Math.min(reserved.getAndSet(keys.length()), keys.length());
+            Set<K> closedKeys = new LinkedHashSet<>(size * 2);
+            for (int slot = 0; slot < size; slot++) {
+                K key;
+                while ((key = keys.get(slot)) == null) {
+                    Thread.onSpinWait();
+                }
+                closedKeys.add(key);
+            }
+            return closedKeys;
+        }
+    }
+}
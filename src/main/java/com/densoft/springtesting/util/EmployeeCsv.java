@@ -0,0 +1,136 @@
+package com.densoft.springtesting.util;
+
+import com.densoft.springtesting.model.Employee;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal RFC 4180 handling for employee files. Fields may be quoted, quotes inside quoted fields are doubled and
+ * line breaks inside them continue the record on the next line, see {@link #endsInQuotedField}. Columns are matched
+ * by header name, so exports with extra or reordered columns still load.
+ */
+public final class EmployeeCsv {
+
+    public static final String FIRST_NAME = "firstname";
+    public static final String LAST_NAME = "lastname";
+    public static final String EMAIL = "email";
+
+    //columns of exported files, imports ignore id and version
+    public static final String HEADER = "id,firstName,lastName,email,version";
+
+    //spreadsheet exports often start with a UTF-8 byte order mark
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    private EmployeeCsv() {
+    }
+
+    //column index per known column, header names are compared without case, spaces and underscores
+    public static Map<String, Integer> columns(String header) {
+        List<String> names = parseLine(header.startsWith(BYTE_ORDER_MARK) ? header.substring(1) : header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.putIfAbsent(names.get(i).replaceAll("[\\s_]", "").toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of(FIRST_NAME, LAST_NAME, EMAIL)) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    public static Employee toEmployee(String line, Map<String, Integer> columns) {
+        List<String> fields = parseLine(line);
+        return Employee.builder()
+                .firstName(field(fields, columns.get(FIRST_NAME)))
+                .lastName(field(fields, columns.get(LAST_NAME)))
+                .email(field(fields, columns.get(EMAIL)))
+                .build();
+    }
+
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        if (parse(line, fields)) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        return fields;
+    }
+
+    //true when a quoted field is still open at the end of the line, the record goes on after the line break
+    public static boolean endsInQuotedField(String line) {
+        return parse(line, new ArrayList<>());
+    }
+
+    //adds the fields of the line, returns whether the last one is an unterminated quoted field
+    private static boolean parse(String line, List<String> fields) {
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return quoted;
+    }
+
+    public static void writeRow(Writer writer, Employee employee) throws IOException {
+        writer.write(Long.toString(employee.getId()));
+        writer.write(',');
+        writeField(writer, employee.getFirstName());
+        writer.write(',');
+        writeField(writer, employee.getLastName());
+        writer.write(',');
+        writeField(writer, employee.getEmail());
+        writer.write(',');
+        writer.write(Long.toString(employee.getVersion()));
+        writer.write('\n');
+    }
+
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String field(List<String> fields, int index) {
+        if (index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+}
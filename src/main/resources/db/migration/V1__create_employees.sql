@@ -0,0 +1,22 @@
+-- schema as generated by ddl-auto=update, existing databases are baselined at this version
+CREATE TABLE employees (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    version    BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_employees_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_employees_last_first ON employees (last_name, first_name);
+
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash    VARCHAR(32)  NOT NULL,
+    employee_id     BIGINT       NOT NULL,
+    created_at      DATETIME(6)  NOT NULL,
+    PRIMARY KEY (idempotency_key)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
@@ -0,0 +1,14 @@
+-- outbox of employee changes, the id is the offset the change feed hands out. IF NOT EXISTS and the inline index
+-- as databases baselined at V1 may already have the table from ddl-auto
+CREATE TABLE IF NOT EXISTS employee_changes (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    type        VARCHAR(16)  NOT NULL,
+    employee_id BIGINT       NOT NULL,
+    first_name  VARCHAR(255),
+    last_name   VARCHAR(255),
+    email       VARCHAR(255),
+    version     BIGINT,
+    created_at  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_employee_changes_created_at (created_at)
+) ENGINE = InnoDB;
@@ -0,0 +1,6 @@
+-- last applied record per write-behind log, IF NOT EXISTS as databases baselined at V1 may have it from ddl-auto
+CREATE TABLE IF NOT EXISTS write_behind_checkpoints (
+    log_id           VARCHAR(36) NOT NULL,
+    applied_sequence BIGINT      NOT NULL,
+    PRIMARY KEY (log_id)
+) ENGINE = InnoDB;
@@ -1,6 +1,9 @@
 package com.densoft.springtesting;
 
+import com.densoft.springtesting.event.EmployeeChangedEvent;
 import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeeChange;
+import com.densoft.springtesting.model.EmployeeChangePage;
 import com.densoft.springtesting.repository.EmployeeRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,11 +14,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
@@ -196,4 +202,42 @@ class SpringTestingApplicationTests {
                 .andExpect(status().isOk());
     }
 
+    // integration test for employee change feed
+    @DisplayName("integration test for employee change feed")
+    @Test
+    public void givenEmployeeWrites_whenGetChangesAfterOffset_thenReturnChangesInOrder() throws Exception {
+        //given  - precondition or setup
+        long offset = changesAfter(null).getOffset();
+        Employee employee = objectMapper.readValue(mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Employee.builder().firstName("test").lastName("user").email("test@gmail.com").build())))
+                .andReturn().getResponse().getContentAsString(), Employee.class);
+        mockMvc.perform(put("/api/employees/{id}", employee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Employee.builder().firstName("john").lastName("doe").email("johndoe@gmail.com").build())));
+        mockMvc.perform(delete("/api/employees/{id}", employee.getId()));
+        //when - action or the behaviour that we are going to test
+        List<EmployeeChange> changes = new ArrayList<>();
+        //each commit is relayed on its own, so the changes may come in more than one response
+        for (int poll = 0; poll < 5 && changes.size() < 3; poll++) {
+            EmployeeChangePage page = changesAfter(offset);
+            changes.addAll(page.getChanges());
+            offset = page.getOffset();
+        }
+        //then - verify the output
+        assertThat(changes).extracting(EmployeeChange::getType).containsExactly(
+                EmployeeChangedEvent.Type.CREATED, EmployeeChangedEvent.Type.UPDATED, EmployeeChangedEvent.Type.DELETED);
+        assertThat(changes).extracting(EmployeeChange::getEmployeeId).containsOnly(employee.getId());
+        assertThat(changes.get(1).getEmail()).isEqualTo("johndoe@gmail.com");
+        assertThat(offset).isEqualTo(changes.get(2).getId());
+    }
+
+    private EmployeeChangePage changesAfter(Long offset) throws Exception {
+        MvcResult result = mockMvc.perform(offset == null
+                        ? get("/api/employees/changes")
+                        : get("/api/employees/changes").param("after", offset.toString()).param("wait", "5"))
+                .andReturn();
+        return objectMapper.readValue(mockMvc.perform(asyncDispatch(result)).andReturn().getResponse().getContentAsString(),
+                EmployeeChangePage.class);
+    }
 }
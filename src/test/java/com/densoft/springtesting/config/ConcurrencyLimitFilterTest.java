@@ -0,0 +1,119 @@
+package com.densoft.springtesting.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    // junit test for request within the concurrency limit
+    @DisplayName("junit test for request within the concurrency limit")
+    @Test
+    public void givenFreePermit_whenDoFilter_thenRequestIsServed() throws Exception {
+        //given  - precondition or setup
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        //when - action or the behaviour that we are going to test
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/employees"), response, new MockFilterChain());
+        //then - verify the output
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    // junit test for request over the concurrency limit
+    @DisplayName("junit test for request over the concurrency limit")
+    @Test
+    public void givenNoFreePermit_whenDoFilter_thenReturn503() throws Exception {
+        //given  - precondition or setup
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO);
+        MockHttpServletResponse rejectedResponse = new MockHttpServletResponse();
+        //the first request is still in flight while the second one arrives
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                try {
+                    filter.doFilter(new MockHttpServletRequest("GET", "/api/employees"), rejectedResponse, new MockFilterChain());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        MockHttpServletResponse servedResponse = new MockHttpServletResponse();
+        //when - action or the behaviour that we are going to test
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/employees"), servedResponse, new MockFilterChain(servlet));
+        //then - verify the output
+        assertThat(servedResponse.getStatus()).isEqualTo(200);
+        assertThat(rejectedResponse.getStatus()).isEqualTo(503);
+    }
+
+    // junit test for an async request holding its permit
+    @DisplayName("junit test for an async request holding its permit")
+    @Test
+    public void givenAsyncRequest_whenDoFilter_thenPermitIsHeldUntilItCompletes() throws Exception {
+        //given  - precondition or setup
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO);
+        MockHttpServletRequest asyncRequest = new MockHttpServletRequest("GET", "/api/employees/export");
+        asyncRequest.setAsyncSupported(true);
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                request.startAsync();
+            }
+        };
+        filter.doFilter(asyncRequest, new MockHttpServletResponse(), new MockFilterChain(servlet));
+        MockHttpServletResponse whileStreaming = new MockHttpServletResponse();
+        MockHttpServletResponse afterCompletion = new MockHttpServletResponse();
+        //when - action or the behaviour that we are going to test
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/employees"), whileStreaming, new MockFilterChain());
+        asyncRequest.getAsyncContext().complete();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/employees"), afterCompletion, new MockFilterChain());
+        //then - verify the output
+        assertThat(whileStreaming.getStatus()).isEqualTo(503);
+        assertThat(afterCompletion.getStatus()).isEqualTo(200);
+    }
+
+    // junit test for requests that do not use database connections
+    @DisplayName("junit test for requests that do not use database connections")
+    @Test
+    public void givenLongPollsAndUnlimitedPaths_whenDoFilter_thenTheyDoNotHoldPermits() throws Exception {
+        //given  - precondition or setup
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO,
+                List.of("/api/employees/search"), List.of("/api/employees/changes"));
+        MockHttpServletRequest longPoll = new MockHttpServletRequest("GET", "/api/employees/changes");
+        longPoll.setAsyncSupported(true);
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                request.startAsync();
+            }
+        };
+        filter.doFilter(longPoll, new MockHttpServletResponse(), new MockFilterChain(servlet));
+        MockHttpServletResponse whileWaiting = new MockHttpServletResponse();
+        MockHttpServletResponse search = new MockHttpServletResponse();
+        //when - action or the behaviour that we are going to test
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/employees"), whileWaiting, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                //the only permit is taken, a search still gets through
+                try {
+                    filter.doFilter(new MockHttpServletRequest("GET", "/api/employees/search"), search, new MockFilterChain());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }));
+        //then - verify the output
+        assertThat(longPoll.isAsyncStarted()).isTrue();
+        assertThat(whileWaiting.getStatus()).isEqualTo(200);
+        assertThat(search.getStatus()).isEqualTo(200);
+    }
+}
@@ -0,0 +1,145 @@
+package com.densoft.springtesting.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EvictionGuardedCacheTest {
+
+    private final EvictionGuardedCache cache = new EvictionGuardedCache("employees", Caffeine.newBuilder().build());
+
+    // junit test for a loaded value
+    @DisplayName("junit test for a loaded value")
+    @Test
+    public void givenMiss_whenGet_thenLoadedValueIsCached() {
+        //given  - precondition or setup
+        cache.get(1L, () -> "loaded");
+        //when - action or the behaviour that we are going to test
+        String value = cache.get(1L, () -> "loaded again");
+        //then - verify the output
+        assertThat(value).isEqualTo("loaded");
+    }
+
+    // junit test for a key that does not exist
+    @DisplayName("junit test for a key that does not exist")
+    @Test
+    public void givenLoaderReturnsNull_whenGet_thenNothingIsCached() {
+        //given  - precondition or setup
+        //when - action or the behaviour that we are going to test
+        Object value = cache.get(1L, () -> null);
+        //then - verify the output
+        assertThat(value).isNull();
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    // junit test for a value loaded inside a transaction
+    @DisplayName("junit test for a value loaded inside a transaction")
+    @Test
+    public void givenActiveTransaction_whenGet_thenLoadedValueIsNotCached() {
+        //given  - precondition or setup
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        //when - action or the behaviour that we are going to test
+        try {
+            cache.get(1L, () -> "uncommitted");
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        //then - verify the output
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    // junit test for a load racing an eviction
+    @DisplayName("junit test for a load racing an eviction")
+    @Test
+    public void givenEvictionDuringLoad_whenGet_thenStaleValueIsNotCached() throws Exception {
+        //given  - precondition or setup
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        //the reader read the old row, the writer commits and evicts before the reader stores it
+        CompletableFuture<String> reader = CompletableFuture.supplyAsync(() -> cache.get(1L, () -> {
+            loading.countDown();
+            evicted.await(5, TimeUnit.SECONDS);
+            return "stale";
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        //when - action or the behaviour that we are going to test
+        cache.evict(1L);
+        evicted.countDown();
+        //then - verify the output
+        assertThat(reader.get(5, TimeUnit.SECONDS)).isEqualTo("stale");
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(1L, () -> "fresh")).isEqualTo("fresh");
+    }
+
+    // junit test for a load racing a clear
+    @DisplayName("junit test for a load racing a clear")
+    @Test
+    public void givenClearDuringLoad_whenGet_thenStaleValueIsNotCached() throws Exception {
+        //given  - precondition or setup
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch cleared = new CountDownLatch(1);
+        CompletableFuture<String> reader = CompletableFuture.supplyAsync(() -> cache.get("test@gmail.com", () -> {
+            loading.countDown();
+            cleared.await(5, TimeUnit.SECONDS);
+            return "stale";
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        //when - action or the behaviour that we are going to test
+        cache.clear();
+        cleared.countDown();
+        //then - verify the output
+        assertThat(reader.get(5, TimeUnit.SECONDS)).isEqualTo("stale");
+        assertThat(cache.get("test@gmail.com")).isNull();
+    }
+
+    // junit test for a batch of keys
+    @DisplayName("junit test for a batch of keys")
+    @Test
+    public void givenSomeKeysCached_whenGetAll_thenLoadOnlyMissesAndCacheThem() {
+        //given  - precondition or setup
+        cache.put(1L, "cached");
+        List<Set<Long>> loads = new ArrayList<>();
+        Function<Set<Long>, Map<Long, String>> loader = keys -> {
+            loads.add(Set.copyOf(keys));
+            //3 does not exist
+            return keys.stream().filter(key -> key != 3L).collect(Collectors.toMap(key -> key, key -> "loaded " + key));
+        };
+        //when - action or the behaviour that we are going to test
+        Map<Long, String> values = cache.getAll(List.of(1L, 2L, 3L), loader);
+        Map<Long, String> again = cache.getAll(List.of(1L, 2L), loader);
+        //then - verify the output
+        assertThat(values).containsExactlyInAnyOrderEntriesOf(Map.of(1L, "cached", 2L, "loaded 2"));
+        assertThat(again).containsExactlyInAnyOrderEntriesOf(Map.of(1L, "cached", 2L, "loaded 2"));
+        assertThat(loads).containsExactly(Set.of(2L, 3L));
+        assertThat(cache.get(3L)).isNull();
+    }
+
+    // junit test for a batch load racing an eviction
+    @DisplayName("junit test for a batch load racing an eviction")
+    @Test
+    public void givenEvictionDuringBatchLoad_whenGetAll_thenStaleValueIsNotCached() {
+        //given  - precondition or setup
+        //when - action or the behaviour that we are going to test
+        Map<Long, String> values = cache.getAll(List.of(1L, 2L), keys -> {
+            cache.evict(1L);
+            return Map.of(1L, "stale", 2L, "loaded");
+        });
+        //then - verify the output
+        assertThat(values).containsEntry(1L, "stale");
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L).get()).isEqualTo("loaded");
+    }
+}
@@ -0,0 +1,45 @@
+package com.densoft.springtesting.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcTuningPropertiesTest {
+
+    // junit test for driver settings on a MySQL pool
+    @DisplayName("junit test for driver settings on a MySQL pool")
+    @Test
+    public void givenMySqlUrl_whenApplyTo_thenSetDriverProperties() {
+        //given  - precondition or setup
+        JdbcTuningProperties properties = new JdbcTuningProperties();
+        properties.getStatementCache().setSize(500);
+        properties.setRewriteBatchedStatements(false);
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:mysql://localhost:3306/spring_test?useSSL=false");
+        //when - action or the behaviour that we are going to test
+        properties.applyTo(config);
+        //then - verify the output
+        assertThat(config.getDataSourceProperties())
+                .containsEntry("cachePrepStmts", true)
+                .containsEntry("useServerPrepStmts", true)
+                .containsEntry("prepStmtCacheSize", 500)
+                .containsEntry("prepStmtCacheSqlLimit", 2048)
+                .containsEntry("rewriteBatchedStatements", false)
+                .containsEntry("useCursorFetch", true);
+    }
+
+    // junit test for driver settings on another database
+    @DisplayName("junit test for driver settings on another database")
+    @Test
+    public void givenOtherUrl_whenApplyTo_thenLeaveDriverPropertiesEmpty() {
+        //given  - precondition or setup
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:test");
+        //when - action or the behaviour that we are going to test
+        new JdbcTuningProperties().applyTo(config);
+        //then - verify the output
+        assertThat(config.getDataSourceProperties()).isEmpty();
+    }
+}
@@ -0,0 +1,160 @@
+package com.densoft.springtesting.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection replicaConnection = mock(Connection.class);
+
+    private final Connection otherReplicaConnection = mock(Connection.class);
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        DataSource primary = mock(DataSource.class);
+        DataSource replica = mock(DataSource.class);
+        DataSource otherReplica = mock(DataSource.class);
+        given(primary.getConnection()).willReturn(primaryConnection);
+        given(replica.getConnection()).willReturn(replicaConnection);
+        given(otherReplica.getConnection()).willReturn(otherReplicaConnection);
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica, otherReplica), Duration.ofSeconds(5));
+        routingDataSource.afterPropertiesSet();
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    // junit test for read-only transactions on the replicas
+    @DisplayName("junit test for read-only transactions on the replicas")
+    @Test
+    public void givenReadOnlyTransaction_whenGetConnection_thenRoundRobinOverReplicas() throws Exception {
+        //given  - precondition or setup
+        startTransaction(true);
+        //when - action or the behaviour that we are going to test
+        List<Connection> connections = List.of(routingDataSource.getConnection(), routingDataSource.getConnection(),
+                routingDataSource.getConnection());
+        //then - verify the output
+        assertThat(connections).containsExactly(replicaConnection, otherReplicaConnection, replicaConnection);
+    }
+
+    // junit test for reads after a write in the same request
+    @DisplayName("junit test for reads after a write in the same request")
+    @Test
+    public void givenWriteInRequest_whenReadOnlyGetConnection_thenUsePrimaryAndSetCookie() throws Exception {
+        //given  - precondition or setup
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+        startTransaction(false);
+        Connection writeConnection = routingDataSource.getConnection();
+        //when - action or the behaviour that we are going to test
+        startTransaction(true);
+        Connection readConnection = routingDataSource.getConnection();
+        //then - verify the output
+        assertThat(writeConnection).isSameAs(primaryConnection);
+        assertThat(readConnection).isSameAs(primaryConnection);
+        assertThat(response.getCookie(ReplicaRoutingDataSource.PRIMARY_COOKIE)).isNotNull();
+    }
+
+    // junit test for reads of a client that wrote recently
+    @DisplayName("junit test for reads of a client that wrote recently")
+    @Test
+    public void givenPrimaryCookie_whenReadOnlyGetConnection_thenUsePrimaryUntilCookieExpires() throws Exception {
+        //given  - precondition or setup
+        MockHttpServletRequest recentRequest = new MockHttpServletRequest();
+        recentRequest.setCookies(new Cookie(ReplicaRoutingDataSource.PRIMARY_COOKIE, Long.toString(System.currentTimeMillis() + 1000)));
+        MockHttpServletRequest expiredRequest = new MockHttpServletRequest();
+        expiredRequest.setCookies(new Cookie(ReplicaRoutingDataSource.PRIMARY_COOKIE, Long.toString(System.currentTimeMillis() - 1)));
+        startTransaction(true);
+        //when - action or the behaviour that we are going to test
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(recentRequest, response));
+        Connection recentConnection = routingDataSource.getConnection();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(expiredRequest, response));
+        Connection expiredConnection = routingDataSource.getConnection();
+        //then - verify the output
+        assertThat(recentConnection).isSameAs(primaryConnection);
+        assertThat(expiredConnection).isSameAs(replicaConnection);
+    }
+
+    // junit test for requests that read their own writes
+    @DisplayName("junit test for requests that read their own writes")
+    @Test
+    public void givenPrimaryCookie_whenIsCurrentRequestPinned_thenTrueUntilCookieExpires() {
+        //given  - precondition or setup
+        MockHttpServletRequest recentRequest = new MockHttpServletRequest();
+        recentRequest.setCookies(new Cookie(ReplicaRoutingDataSource.PRIMARY_COOKIE, Long.toString(System.currentTimeMillis() + 1000)));
+        MockHttpServletRequest expiredRequest = new MockHttpServletRequest();
+        expiredRequest.setCookies(new Cookie(ReplicaRoutingDataSource.PRIMARY_COOKIE, Long.toString(System.currentTimeMillis() - 1)));
+        //when - action or the behaviour that we are going to test
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(recentRequest, response));
+        boolean recentPinned = ReplicaRoutingDataSource.isCurrentRequestPinned();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(expiredRequest, response));
+        boolean expiredPinned = ReplicaRoutingDataSource.isCurrentRequestPinned();
+        //then - verify the output
+        assertThat(recentPinned).isTrue();
+        assertThat(expiredPinned).isFalse();
+    }
+
+    // junit test for reads that fill the shared caches
+    @DisplayName("junit test for reads that fill the shared caches")
+    @Test
+    public void givenReadFromPrimary_whenReadOnlyGetConnection_thenUsePrimary() throws Exception {
+        //given  - precondition or setup
+        startTransaction(true);
+        //when - action or the behaviour that we are going to test
+        Connection cacheLoadConnection = ReplicaRoutingDataSource.readFromPrimary(routingDataSource::getConnection);
+        Connection readConnection = routingDataSource.getConnection();
+        //then - verify the output
+        assertThat(cacheLoadConnection).isSameAs(primaryConnection);
+        assertThat(readConnection).isSameAs(replicaConnection);
+    }
+
+    // junit test for connections taken before the transaction is marked read-only
+    @DisplayName("junit test for connections taken before the transaction is marked read-only")
+    @Test
+    public void givenLazyProxy_whenConnectionTakenBeforeReadOnly_thenRouteOnFirstStatement() throws Exception {
+        //given  - precondition or setup
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        Connection connection = dataSource.getConnection();
+        //when - action or the behaviour that we are going to test
+        startTransaction(true);
+        connection.createStatement();
+        //then - verify the output
+        assertThat(((ConnectionProxy) connection).getTargetConnection()).isSameAs(replicaConnection);
+    }
+
+    private static void startTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
@@ -0,0 +1,98 @@
+package com.densoft.springtesting.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//the routing against two real databases, each one holds a row naming it
+class ReplicaRoutingIntegrationTests {
+
+    private EmbeddedDatabase primary;
+
+    private EmbeddedDatabase replica;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    public void setup() {
+        primary = database("primary");
+        replica = database("replica");
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(5));
+        routingDataSource.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), new MockHttpServletResponse()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    // junit test for read-only transactions on the replica
+    @DisplayName("junit test for read-only transactions on the replica")
+    @Test
+    public void givenReadOnlyTransaction_whenQuery_thenReadFromReplica() {
+        //given  - precondition or setup
+
+        //when - action or the behaviour that we are going to test
+        String source = readOnly.execute(status -> currentDatabase());
+        //then - verify the output
+        assertThat(source).isEqualTo("replica");
+    }
+
+    // junit test for reading your own writes
+    @DisplayName("junit test for reading your own writes")
+    @Test
+    public void givenWriteInRequest_whenReadOnlyQuery_thenReadFromPrimary() {
+        //given  - precondition or setup
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO source (name) VALUES ('written')"));
+        //when - action or the behaviour that we are going to test
+        List<String> names = readOnly.execute(status -> jdbcTemplate.queryForList("SELECT name FROM source ORDER BY name", String.class));
+        //then - verify the output
+        assertThat(names).containsExactly("primary", "written");
+        assertThat(new JdbcTemplate(replica).queryForList("SELECT name FROM source", String.class)).containsExactly("replica");
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT name FROM source", String.class);
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE source (name VARCHAR(20) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO source (name) VALUES (?)", name);
+        return database;
+    }
+}
@@ -0,0 +1,97 @@
+package com.densoft.springtesting.controller;
+
+import com.densoft.springtesting.event.EmployeeChangedEvent;
+import com.densoft.springtesting.exception.ChangeOffsetExpiredException;
+import com.densoft.springtesting.model.EmployeeChange;
+import com.densoft.springtesting.model.EmployeeChangePage;
+import com.densoft.springtesting.service.EmployeeChangeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmployeeChangeController.class)
+class EmployeeChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeChangeService employeeChangeService;
+
+    // junit test for get changes REST API
+    @DisplayName("junit test for get changes REST API")
+    @Test
+    public void givenOffset_whenGetChanges_thenReturnChangesAndNextOffset() throws Exception {
+        //given  - precondition or setup
+        EmployeeChange change = EmployeeChange.builder()
+                .id(8)
+                .type(EmployeeChangedEvent.Type.DELETED)
+                .employeeId(3)
+                .createdAt(Instant.now())
+                .build();
+        given(employeeChangeService.awaitChanges(7, 100, Duration.ofSeconds(20)))
+                .willReturn(CompletableFuture.completedFuture(new EmployeeChangePage(List.of(change), 8)));
+        //when - action or the behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/employees/changes").param("after", "7").param("wait", "20"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.size()", is(1)))
+                .andExpect(jsonPath("$.changes[0].type", is("DELETED")))
+                .andExpect(jsonPath("$.changes[0].employeeId", is(3)))
+                .andExpect(jsonPath("$.offset", is(8)));
+    }
+
+    // junit test for get changes REST API without offset
+    @DisplayName("junit test for get changes REST API without offset")
+    @Test
+    public void givenNoOffset_whenGetChanges_thenReturnCurrentOffset() throws Exception {
+        //given  - precondition or setup
+        given(employeeChangeService.getOffset()).willReturn(42L);
+        //when - action or the behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/employees/changes")).andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.size()", is(0)))
+                .andExpect(jsonPath("$.offset", is(42)));
+    }
+
+    // junit test for get changes REST API negative scenario
+    @DisplayName("junit test for get changes REST API (negative scenario)")
+    @Test
+    public void givenExpiredOffset_whenGetChanges_thenReturn410() throws Exception {
+        //given  - precondition or setup
+        given(employeeChangeService.awaitChanges(any(Long.class), any(Integer.class), any()))
+                .willThrow(new ChangeOffsetExpiredException("expired"));
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/changes").param("after", "1"));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isGone());
+    }
+}
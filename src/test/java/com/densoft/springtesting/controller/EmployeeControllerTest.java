@@ -1,30 +1,53 @@
 package com.densoft.springtesting.controller;
 
+import com.densoft.springtesting.exception.VersionConflictException;
 import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeeBatchResult;
+import com.densoft.springtesting.model.EmployeePage;
+import com.densoft.springtesting.model.EmployeeView;
+import com.densoft.springtesting.model.EmployeeViewPage;
+import com.densoft.springtesting.model.IdempotentCreate;
 import com.densoft.springtesting.service.EmployeeService;
+import com.densoft.springtesting.service.IdempotentEmployeeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest
+@WebMvcTest(EmployeeController.class)
 class EmployeeControllerTest {
 
     @Autowired
@@ -33,6 +56,9 @@ class EmployeeControllerTest {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private IdempotentEmployeeService idempotentEmployeeService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -57,6 +83,55 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    // junit test for retried create employee with idempotency key
+    @DisplayName("junit test for retried create employee with idempotency key ")
+    @Test
+    public void givenIdempotencyKey_whenCreateEmployeeRetried_thenReturnOriginalEmployee() throws Exception {
+        //given  - precondition or setup
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("test")
+                .lastName("user")
+                .email("test@gmail.com")
+                .build();
+        given(idempotentEmployeeService.saveEmployee(eq("create-1"), any(Employee.class))).willReturn(new IdempotentCreate(employee, true));
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .header("Idempotency-Key", "create-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id", is(1)));
+        verify(employeeService, never()).saveEmployee(any(Employee.class));
+    }
+
+    // junit test for batch create employees REST API
+    @DisplayName("junit test for batch create employees REST API ")
+    @Test
+    public void givenEmployeesBatch_whenCreateEmployees_thenReturnResultPerEmployee() throws Exception {
+        //given  - precondition or setup
+        List<Employee> employees = List.of(
+                Employee.builder().firstName("test").lastName("user").email("test@gmail.com").build(),
+                Employee.builder().firstName("john").lastName("doe").email("test@gmail.com").build()
+        );
+        given(employeeService.saveEmployees(any())).willReturn(List.of(
+                new EmployeeBatchResult(0, EmployeeBatchResult.Status.CREATED, employees.get(0), null),
+                new EmployeeBatchResult(1, EmployeeBatchResult.Status.DUPLICATE, employees.get(1), "Employee already exists with given email: test@gmail.com")
+        ));
+
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees/batch").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employees)));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(employees.size())))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[1].status", is("DUPLICATE")));
+    }
+
     // junit test for get all employees REST API
     @DisplayName("junit test for get all employees REST API ")
     @Test
@@ -67,15 +142,273 @@ class EmployeeControllerTest {
                 Employee.builder().firstName("john").lastName("doe").email("johndoe@gmail.com").build()
         );
         given(employeeService.getAllEmployees()).willReturn(employees);
+        given(employeeService.getEmployeesVersion()).willReturn(Optional.of(42L));
 
         //when - action or the behaviour that we are going to test
         ResultActions response = mockMvc.perform(get("/api/employees"));
         //then - verify the output
         response.andDo(print())
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"42\""))
                 .andExpect(jsonPath("$.size()", is(employees.size())));
     }
 
+    // junit test for conditional get all employees REST API
+    @DisplayName("junit test for conditional get all employees REST API ")
+    @Test
+    public void givenUnchangedEmployees_whenGetAllEmployeesWithIfNoneMatch_thenReturn304() throws Exception {
+        //given  - precondition or setup
+        given(employeeService.getEmployeesVersion()).willReturn(Optional.of(42L));
+
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH, "W/\"42\""));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    // junit test for get all employees REST API in CBOR
+    @DisplayName("junit test for get all employees REST API in CBOR ")
+    @Test
+    public void givenCborAccept_whenGetAllEmployees_thenReturnCborEncodedEmployees() throws Exception {
+        //given  - precondition or setup
+        List<Employee> employees = List.of(
+                Employee.builder().firstName("test").lastName("user").email("test@gmail.com").build(),
+                Employee.builder().firstName("john").lastName("doe").email("johndoe@gmail.com").build()
+        );
+        given(employeeService.getAllEmployees()).willReturn(employees);
+        given(employeeService.getEmployeesVersion()).willReturn(Optional.of(42L));
+
+        //when - action or the behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/employees").accept(MediaType.APPLICATION_CBOR)).andReturn();
+        //then - verify the output
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+        Employee[] decoded = new CBORMapper().readValue(result.getResponse().getContentAsByteArray(), Employee[].class);
+        assertThat(decoded).extracting(Employee::getEmail).containsExactly("test@gmail.com", "johndoe@gmail.com");
+    }
+
+    // junit test for keyset paginated employees REST API
+    @DisplayName("junit test for keyset paginated employees REST API ")
+    @Test
+    public void givenAfterAndLimit_whenGetEmployees_thenReturnPageWithCursor() throws Exception {
+        //given  - precondition or setup
+        List<Employee> employees = List.of(
+                Employee.builder().id(11).firstName("test").lastName("user").email("test@gmail.com").build(),
+                Employee.builder().id(12).firstName("john").lastName("doe").email("johndoe@gmail.com").build()
+        );
+        given(employeeService.getEmployees(10L, 2)).willReturn(new EmployeePage(employees, 12L));
+
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("after", "10").param("limit", "2"));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(employees.size())))
+                .andExpect(jsonPath("$.nextCursor", is(12)));
+    }
+
+    // junit test for keyset paginated employees REST API without a limit
+    @DisplayName("junit test for keyset paginated employees REST API without a limit ")
+    @Test
+    public void givenAfterWithoutLimit_whenGetEmployees_thenReturnPageOfDefaultSize() throws Exception {
+        //given  - precondition or setup
+        List<Employee> employees = List.of(
+                Employee.builder().id(11).firstName("test").lastName("user").email("test@gmail.com").build()
+        );
+        given(employeeService.getEmployees(10L, 100)).willReturn(new EmployeePage(employees, null));
+
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("after", "10"));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(employees.size())));
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    // junit test for employee views REST API with sparse fieldset
+    @DisplayName("junit test for employee views REST API with sparse fieldset ")
+    @Test
+    public void givenFields_whenGetEmployeeViews_thenReturnOnlyRequestedFields() throws Exception {
+        //given  - precondition or setup
+        List<EmployeeView> views = List.of(new EmployeeView(1, "test", "user", "test@gmail.com", 2));
+        given(employeeService.getEmployeeViews(0L, 100)).willReturn(new EmployeeViewPage(views, null));
+
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/views").param("fields", "id,email"));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id", is(1)))
+                .andExpect(jsonPath("$.content[0].email", is("test@gmail.com")))
+                .andExpect(jsonPath("$.content[0].firstName").doesNotExist())
+                .andExpect(jsonPath("$.content[0].version").doesNotExist());
+    }
+
+    // junit test for employee views REST API with unknown field
+    @DisplayName("junit test for employee views REST API with unknown field ")
+    @Test
+    public void givenUnknownField_whenGetEmployeeViews_thenReturn400() throws Exception {
+        //given  - precondition or setup
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/views").param("fields", "id,salary"));
+        //then - verify the output
+        response.andExpect(status().isBadRequest());
+    }
+
+    // junit test for name search REST API
+    @DisplayName("junit test for name search REST API ")
+    @Test
+    public void givenLastNameAndFirstName_whenGetEmployeesByName_thenReturnPage() throws Exception {
+        //given  - precondition or setup
+        List<Employee> employees = List.of(Employee.builder().id(12).firstName("john").lastName("doe").email("johndoe@gmail.com").build());
+        given(employeeService.getEmployeesByName("doe", "john", 0L, 100)).willReturn(new EmployeePage(employees, null));
+
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/by-name").param("lastName", "doe").param("firstName", "john"));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].email", is("johndoe@gmail.com")))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    // junit test for csv export REST API
+    @DisplayName("junit test for csv export REST API ")
+    @Test
+    public void givenListOfEmployees_whenExportEmployeesAsCsv_thenReturnCsvFile() throws Exception {
+        //given  - precondition or setup
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(Employee.builder().id(1).firstName("test").lastName("user").email("test@gmail.com").build());
+            consumer.accept(Employee.builder().id(2).firstName("john, jr").lastName("doe").email("johndoe@gmail.com").version(3).build());
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+
+        //when - action or the behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/employees/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //then - verify the output
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.csv\""))
+                .andExpect(content().string("id,firstName,lastName,email,version\n"
+                        + "1,test,user,test@gmail.com,0\n"
+                        + "2,\"john, jr\",doe,johndoe@gmail.com,3\n"));
+    }
+
+    // junit test for gzip ndjson export REST API
+    @DisplayName("junit test for gzip ndjson export REST API ")
+    @Test
+    public void givenGzipAccepted_whenExportEmployeesAsNdjson_thenReturnCompressedNdjson() throws Exception {
+        //given  - precondition or setup
+        Employee employee = Employee.builder().id(1).firstName("test").lastName("user").email("test@gmail.com").build();
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+
+        //when - action or the behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/employees/export").param("format", "ndjson")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //then - verify the output
+        MvcResult response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(response.getResponse().getContentAsByteArray()))) {
+            assertThat(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8))
+                    .isEqualTo(objectMapper.writeValueAsString(employee) + "\n");
+        }
+    }
+
+    // junit test for export REST API with gzip refused
+    @DisplayName("junit test for export REST API with gzip refused ")
+    @Test
+    public void givenGzipWithZeroQValue_whenExportEmployees_thenReturnUncompressedCsv() throws Exception {
+        //given  - precondition or setup
+        Employee employee = Employee.builder().id(1).firstName("test").lastName("user").email("test@gmail.com").build();
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+
+        //when - action or the behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/employees/export")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *;q=0.5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //then - verify the output
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string("id,firstName,lastName,email,version\n1,test,user,test@gmail.com,0\n"));
+    }
+
+    // junit test for export REST API with unknown format
+    @DisplayName("junit test for export REST API with unknown format ")
+    @Test
+    public void givenUnknownFormat_whenExportEmployees_thenReturn400() throws Exception {
+        //given  - precondition or setup
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/export").param("format", "xml"));
+        //then - verify the output
+        response.andExpect(status().isBadRequest());
+    }
+
+    // junit test for search REST API
+    @DisplayName("junit test for search REST API ")
+    @Test
+    public void givenQuery_whenSearchEmployees_thenReturnMatchingEmployees() throws Exception {
+        //given  - precondition or setup
+        List<Employee> employees = List.of(Employee.builder().id(12).firstName("john").lastName("doe").email("johndoe@gmail.com").build());
+        given(employeeService.searchEmployees("jo", 20)).willReturn(employees);
+
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/search").param("q", "jo"));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].firstName", is("john")));
+    }
+
+    // junit test for streaming employees as NDJSON
+    @DisplayName("junit test for streaming employees as NDJSON ")
+    @Test
+    public void givenListOfEmployees_whenStreamEmployees_thenReturnOneJsonDocumentPerLine() throws Exception {
+        //given  - precondition or setup
+        List<Employee> employees = List.of(
+                Employee.builder().id(1).firstName("test").lastName("user").email("test@gmail.com").build(),
+                Employee.builder().id(2).firstName("john").lastName("doe").email("johndoe@gmail.com").build()
+        );
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            employees.forEach(consumer);
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/stream"))
+                .andExpect(request().asyncStarted());
+        //then - verify the output
+        mockMvc.perform(asyncDispatch(response.andReturn()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(employees.get(0)) + "\n"
+                        + objectMapper.writeValueAsString(employees.get(1)) + "\n"));
+    }
+
     //positive scenario - valid employee id
     // junit test for GET employee by id REST API
     @DisplayName("junit test for GET employee by id REST API (positive scenario)")
@@ -99,6 +432,47 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    // junit test for conditional GET employee by id REST API
+    @DisplayName("junit test for conditional GET employee by id REST API (unchanged employee)")
+    @Test
+    public void givenMatchingETag_whenGetEmployeeById_thenReturn304WithoutLoadingEmployee() throws Exception {
+        //given  - precondition or setup
+        long employeeId = 1l;
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(2L));
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId).header(HttpHeaders.IF_NONE_MATCH, "\"2\""));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(content().string(""));
+        verify(employeeService, never()).getEmployeeById(employeeId);
+    }
+
+    // junit test for conditional GET employee by id REST API
+    @DisplayName("junit test for conditional GET employee by id REST API (changed employee)")
+    @Test
+    public void givenStaleETag_whenGetEmployeeById_thenReturnEmployeeObject() throws Exception {
+        //given  - precondition or setup
+        long employeeId = 1l;
+        Employee employee = Employee.builder()
+                .id(employeeId)
+                .firstName("test")
+                .lastName("user")
+                .email("test@gmail.com")
+                .version(3)
+                .build();
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(3L));
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId).header(HttpHeaders.IF_NONE_MATCH, "\"2\""));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.version", is(3)));
+    }
+
     //negative scenario - invalid employee id
     // junit test for GET employee by id REST API
     @DisplayName("junit test for GET employee by id REST API (negative scenario)")
@@ -121,20 +495,13 @@ class EmployeeControllerTest {
         //given  - precondition or setup
         long employeeId = 1l;
 
-        Employee employee = Employee.builder()
-                .firstName("test")
-                .lastName("user")
-                .email("test@gmail.com")
-                .build();
-
         Employee updatedEmployee = Employee.builder()
                 .firstName("john")
                 .lastName("doe")
                 .email("johndoe@gmail.com")
                 .build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
-        given(employeeService.updateEmployee(any(Employee.class))).willAnswer(invocation -> invocation.getArgument(0));
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), isNull())).willAnswer(invocation -> Optional.of(invocation.getArgument(1)));
         //when - action or the behaviour that we are going to test
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -142,6 +509,7 @@ class EmployeeControllerTest {
         //then - verify the output
         response.andDo(print())
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
                 .andExpect(jsonPath("$.firstName", is(updatedEmployee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(updatedEmployee.getLastName())))
                 .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())));
@@ -154,26 +522,72 @@ class EmployeeControllerTest {
         //given  - precondition or setup
         long employeeId = 1l;
 
-        Employee employee = Employee.builder()
-                .firstName("test")
-                .lastName("user")
-                .email("test@gmail.com")
+        Employee updatedEmployee = Employee.builder()
+                .firstName("john")
+                .lastName("doe")
+                .email("johndoe@gmail.com")
                 .build();
 
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), isNull())).willReturn(Optional.empty());
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    // junit test for conditional update employee rest API
+    @DisplayName("junit test for conditional update employee rest API")
+    @Test
+    public void givenIfMatchHeader_whenUpdateEmployee_thenPassVersionAndReturnNewETag() throws Exception {
+        //given  - precondition or setup
+        long employeeId = 1l;
+
         Employee updatedEmployee = Employee.builder()
                 .firstName("john")
                 .lastName("doe")
                 .email("johndoe@gmail.com")
                 .build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), eq(3L)))
+                .willReturn(Optional.of(Employee.builder().id(employeeId).firstName("john").lastName("doe").email("johndoe@gmail.com").version(4).build()));
         //when - action or the behaviour that we are going to test
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updatedEmployee)));
         //then - verify the output
         response.andDo(print())
-                .andExpect(status().isNotFound());
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version", is(4)));
+    }
+
+    // junit test for conditional update employee rest API with stale version
+    @DisplayName("junit test for conditional update employee rest API (stale version)")
+    @Test
+    public void givenStaleIfMatchHeader_whenUpdateEmployee_thenReturn412() throws Exception {
+        //given  - precondition or setup
+        long employeeId = 1l;
+
+        Employee updatedEmployee = Employee.builder()
+                .firstName("john")
+                .lastName("doe")
+                .email("johndoe@gmail.com")
+                .build();
+
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), eq(3L)))
+                .willThrow(new VersionConflictException("Employee 1 has been modified, expected version: 3"));
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isPreconditionFailed());
     }
 
     // junit test for delete employee
@@ -190,5 +604,22 @@ class EmployeeControllerTest {
                 .andExpect(status().isOk());
     }
 
+    // junit test for bulk delete employees
+    @DisplayName("junit test for bulk delete employees ")
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturn200() throws Exception {
+        //given  - precondition or setup
+        List<Long> employeeIds = List.of(1L, 2L, 3L);
+        given(employeeService.deleteEmployees(employeeIds)).willReturn(2);
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(delete("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employeeIds)));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().string("2 employees deleted successfully"));
+    }
+
 
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.densoft.springtesting.controller;
+
+import com.densoft.springtesting.model.EmployeeImportReport;
+import com.densoft.springtesting.service.EmployeeImportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.InputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmployeeImportController.class)
+class EmployeeImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeImportService employeeImportService;
+
+    // junit test for csv import REST API
+    @DisplayName("junit test for csv import REST API")
+    @Test
+    public void givenCsvBody_whenImportEmployees_thenReturnImportReport() throws Exception {
+        //given  - precondition or setup
+        EmployeeImportReport report = new EmployeeImportReport();
+        report.setRows(1);
+        report.setCreated(1);
+        given(employeeImportService.importCsv(any(InputStream.class))).willReturn(report);
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees/import")
+                .contentType("text/csv")
+                .content("firstName,lastName,email\ntest,user,test@gmail.com\n"));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(1)));
+    }
+
+    // junit test for ndjson import REST API
+    @DisplayName("junit test for ndjson import REST API")
+    @Test
+    public void givenNdjsonBody_whenImportEmployees_thenReturnImportReport() throws Exception {
+        //given  - precondition or setup
+        EmployeeImportReport report = new EmployeeImportReport();
+        report.setRows(1);
+        report.setDuplicates(1);
+        given(employeeImportService.importNdjson(any(InputStream.class))).willReturn(report);
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"firstName\":\"test\",\"lastName\":\"user\",\"email\":\"test@gmail.com\"}\n"));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.duplicates", is(1)));
+    }
+}
@@ -0,0 +1,70 @@
+package com.densoft.springtesting.controller;
+
+import com.densoft.springtesting.model.PurgeJob;
+import com.densoft.springtesting.service.EmployeePurgeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmployeePurgeController.class)
+class EmployeePurgeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeePurgeService employeePurgeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // junit test for start purge REST API
+    @DisplayName("junit test for start purge REST API")
+    @Test
+    public void givenEmployeeIds_whenStartPurge_thenReturn202WithJobLocation() throws Exception {
+        //given  - precondition or setup
+        List<Long> employeeIds = List.of(1L, 2L);
+        given(employeePurgeService.startPurge(employeeIds)).willReturn(new PurgeJob("job-1", 2));
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees/purge")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employeeIds)));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/employees/purge/job-1"))
+                .andExpect(jsonPath("$.status", is("QUEUED")))
+                .andExpect(jsonPath("$.total", is(2)));
+    }
+
+    // junit test for purge progress REST API negative scenario
+    @DisplayName("junit test for purge progress REST API (negative scenario)")
+    @Test
+    public void givenUnknownJobId_whenGetPurgeJob_thenReturn404() throws Exception {
+        //given  - precondition or setup
+        given(employeePurgeService.getPurgeJob("unknown")).willReturn(Optional.empty());
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/purge/{jobId}", "unknown"));
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+    }
+}
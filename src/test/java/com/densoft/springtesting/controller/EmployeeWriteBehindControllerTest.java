@@ -0,0 +1,62 @@
+package com.densoft.springtesting.controller;
+
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.service.EmployeeWriteBehindService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = EmployeeWriteBehindController.class, properties = "app.write-behind.enabled=true")
+class EmployeeWriteBehindControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeWriteBehindService employeeWriteBehindService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // junit test for write-behind create employee REST API
+    @DisplayName("junit test for write-behind create employee REST API")
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenReturn202() throws Exception {
+        //given  - precondition or setup
+        Employee employee = Employee.builder().firstName("test").lastName("user").email("test@gmail.com").build();
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees/write-behind")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        //then - verify the output
+        response.andDo(print()).andExpect(status().isAccepted());
+        verify(employeeWriteBehindService).saveEmployee(employee);
+    }
+
+    // junit test for write-behind update employee REST API
+    @DisplayName("junit test for write-behind update employee REST API")
+    @Test
+    public void givenEmployeeObject_whenUpdateEmployee_thenReturn202() throws Exception {
+        //given  - precondition or setup
+        Employee employee = Employee.builder().firstName("john").lastName("doe").email("john@gmail.com").build();
+        //when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(put("/api/employees/write-behind/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        //then - verify the output
+        response.andDo(print()).andExpect(status().isAccepted());
+        verify(employeeWriteBehindService).updateEmployee(1L, employee);
+    }
+}
@@ -0,0 +1,92 @@
+package com.densoft.springtesting.controller;
+
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.service.ReactiveEmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReactiveEmployeeController.class)
+class ReactiveEmployeeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReactiveEmployeeService reactiveEmployeeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // junit test for reactive GET employee by id REST API
+    @DisplayName("junit test for reactive GET employee by id REST API")
+    @Test
+    public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeObject() throws Exception {
+        //given  - precondition or setup
+        Employee employee = Employee.builder().id(1).firstName("test").lastName("user").email("test@gmail.com").build();
+        given(reactiveEmployeeService.getEmployeeById(1L)).willReturn(Mono.just(employee));
+        //when - action or the behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/reactive/employees/{id}", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //then - verify the output
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+    }
+
+    // junit test for reactive GET employee by id REST API negative scenario
+    @DisplayName("junit test for reactive GET employee by id REST API (negative scenario)")
+    @Test
+    public void givenInvalidEmployeeId_whenGetEmployeeById_thenReturn404() throws Exception {
+        //given  - precondition or setup
+        given(reactiveEmployeeService.getEmployeeById(1L)).willReturn(Mono.empty());
+        //when - action or the behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/reactive/employees/{id}", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //then - verify the output
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    // junit test for reactive streaming of all employees
+    @DisplayName("junit test for reactive streaming of all employees")
+    @Test
+    public void givenListOfEmployees_whenGetAllEmployeesAsNdjson_thenReturnOneEmployeePerLine() throws Exception {
+        //given  - precondition or setup
+        Employee employee = Employee.builder().id(1).firstName("test").lastName("user").email("test@gmail.com").build();
+        Employee employeeTwo = Employee.builder().id(2).firstName("john").lastName("doe").email("john@gmail.com").build();
+        given(reactiveEmployeeService.getAllEmployees()).willReturn(Flux.just(employee, employeeTwo));
+        //when - action or the behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/reactive/employees").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //then - verify the output
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper.writeValueAsString(employee) + "\n"
+                        + objectMapper.writeValueAsString(employeeTwo) + "\n"));
+    }
+}
@@ -0,0 +1,214 @@
+package com.densoft.springtesting.repository;
+
+import com.densoft.springtesting.config.CacheConfig;
+import com.densoft.springtesting.config.PersistenceConfig;
+import com.densoft.springtesting.model.Employee;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+@DataJpaTest
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@Import({CacheConfig.class, PersistenceConfig.class})
+//evictions wait for the commit, the tests commit like the application does
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmployeeRepositoryCacheTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("test")
+                .lastName("user")
+                .email("test@gmail.com")
+                .build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        employeeRepository.deleteAll();
+    }
+
+    // junit test for cached find employee by id
+    @DisplayName("junit test for cached find employee by id")
+    @Test
+    public void givenEmployeeId_whenFindByIdTwice_thenSecondLookupHitsCache() {
+        //given  - precondition or setup
+        CacheStats before = stats(CacheConfig.EMPLOYEES_BY_ID);
+        //when - action or the behaviour that we are going to test
+        employeeRepository.findById(employee.getId());
+        employeeRepository.findById(employee.getId());
+        //then - verify the output
+        CacheStats after = stats(CacheConfig.EMPLOYEES_BY_ID);
+        assertThat(after.missCount() - before.missCount()).isEqualTo(1);
+        assertThat(after.hitCount() - before.hitCount()).isEqualTo(1);
+    }
+
+    // junit test for cached find employee by email
+    @DisplayName("junit test for cached find employee by email")
+    @Test
+    public void givenEmployeeEmail_whenFindByEmailTwice_thenSecondLookupHitsCache() {
+        //given  - precondition or setup
+        CacheStats before = stats(CacheConfig.EMPLOYEES_BY_EMAIL);
+        //when - action or the behaviour that we are going to test
+        employeeRepository.findByEmail(employee.getEmail());
+        employeeRepository.findByEmail(employee.getEmail());
+        //then - verify the output
+        CacheStats after = stats(CacheConfig.EMPLOYEES_BY_EMAIL);
+        assertThat(after.missCount() - before.missCount()).isEqualTo(1);
+        assertThat(after.hitCount() - before.hitCount()).isEqualTo(1);
+    }
+
+    // junit test for cache invalidation on update
+    @DisplayName("junit test for cache invalidation on update")
+    @Test
+    public void givenCachedEmployee_whenSave_thenCacheEntriesAreEvicted() {
+        //given  - precondition or setup
+        employeeRepository.findById(employee.getId());
+        employeeRepository.findByEmail(employee.getEmail());
+        //when - action or the behaviour that we are going to test
+        employeeRepository.save(Employee.builder()
+                .id(employee.getId())
+                .firstName("test")
+                .lastName("user")
+                .email("testuser@gmail.com")
+                .version(employee.getVersion())
+                .build());
+        //then - verify the output
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID).get(employee.getId())).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_BY_EMAIL).get(employee.getEmail())).isNull();
+    }
+
+    // junit test for cache invalidation on delete
+    @DisplayName("junit test for cache invalidation on delete")
+    @Test
+    public void givenCachedEmployee_whenDeleteById_thenCacheEntryIsEvicted() {
+        //given  - precondition or setup
+        employeeRepository.findById(employee.getId());
+        //when - action or the behaviour that we are going to test
+        employeeRepository.deleteById(employee.getId());
+        //then - verify the output
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID).get(employee.getId())).isNull();
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    }
+
+    // junit test for cache invalidation when the update commits
+    @DisplayName("junit test for cache invalidation when the update commits")
+    @Test
+    public void givenReadDuringUpdateTransaction_whenCommit_thenOldEmployeeIsNotCached() throws Exception {
+        //given  - precondition or setup
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        //when - action or the behaviour that we are going to test
+        transactionTemplate.executeWithoutResult(status -> {
+            employeeRepository.save(Employee.builder()
+                    .id(employee.getId())
+                    .firstName("test")
+                    .lastName("user")
+                    .email("testuser@gmail.com")
+                    .version(employee.getVersion())
+                    .build());
+            //a concurrent reader still sees the committed row and caches it while the update is in flight
+            Optional<Employee> concurrentRead = CompletableFuture.supplyAsync(() -> employeeRepository.findById(employee.getId()))
+                    .orTimeout(5, TimeUnit.SECONDS)
+                    .join();
+            assertThat(concurrentRead).map(Employee::getEmail).contains("test@gmail.com");
+        });
+        //then - verify the output
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID).get(employee.getId())).isNull();
+        assertThat(employeeRepository.findById(employee.getId())).map(Employee::getEmail).contains("testuser@gmail.com");
+    }
+
+    // junit test for a rolled back update
+    @DisplayName("junit test for a rolled back update")
+    @Test
+    public void givenCachedEmployee_whenUpdateRolledBack_thenCacheEntryIsKept() {
+        //given  - precondition or setup
+        employeeRepository.findById(employee.getId());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        //when - action or the behaviour that we are going to test
+        transactionTemplate.executeWithoutResult(status -> {
+            employeeRepository.save(Employee.builder()
+                    .id(employee.getId())
+                    .firstName("test")
+                    .lastName("user")
+                    .email("testuser@gmail.com")
+                    .version(employee.getVersion())
+                    .build());
+            status.setRollbackOnly();
+        });
+        //then - verify the output
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID).get(employee.getId())).isNotNull();
+    }
+
+    // junit test for the cache hit ratio with writes in between
+    @DisplayName("junit test for the cache hit ratio with writes in between")
+    @Test
+    public void givenWritesBetweenReads_whenFindById_thenOnlyWrittenEmployeesMiss() {
+        //given  - precondition or setup
+        List<Employee> employees = new ArrayList<>(List.of(employee));
+        for (int i = 1; i < 10; i++) {
+            employees.add(employeeRepository.save(Employee.builder()
+                    .firstName("test" + i)
+                    .lastName("user")
+                    .email("test" + i + "@gmail.com")
+                    .build()));
+        }
+        CacheStats before = stats(CacheConfig.EMPLOYEES_BY_ID);
+        //when - action or the behaviour that we are going to test
+        for (int round = 0; round < 10; round++) {
+            employees.forEach(e -> employeeRepository.findById(e.getId()));
+            Employee written = employeeRepository.findById(employees.get(round).getId()).get();
+            employeeRepository.save(Employee.builder()
+                    .id(written.getId())
+                    .firstName(written.getFirstName())
+                    .lastName("updated")
+                    .email(written.getEmail())
+                    .version(written.getVersion())
+                    .build());
+        }
+        //then - verify the output
+        CacheStats after = stats(CacheConfig.EMPLOYEES_BY_ID);
+        //10 cold misses, then the one employee written in the round before misses each round
+        assertThat(after.missCount() - before.missCount()).isEqualTo(19);
+        assertThat(after.hitCount() - before.hitCount()).isEqualTo(91);
+    }
+
+    private CacheStats stats(String cacheName) {
+        TransactionAwareCacheDecorator cache = (TransactionAwareCacheDecorator) cacheManager.getCache(cacheName);
+        return ((CaffeineCache) cache.getTargetCache()).getNativeCache().stats();
+    }
+}
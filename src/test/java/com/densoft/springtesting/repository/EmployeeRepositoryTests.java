@@ -1,24 +1,37 @@
 package com.densoft.springtesting.repository;
 
+import com.densoft.springtesting.config.PersistenceConfig;
 import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeeView;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 
 @DataJpaTest
+@Import(PersistenceConfig.class)
 class EmployeeRepositoryTests {
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Employee employee;
 
     @BeforeEach
@@ -73,6 +86,115 @@ class EmployeeRepositoryTests {
         assertThat(employees.size()).isEqualTo(2);
     }
 
+    // junit test for keyset pagination on id
+    @DisplayName("junit test for keyset pagination on id")
+    @Test
+    public void givenEmployeesList_whenFindByIdGreaterThan_thenReturnNextEmployeesInIdOrder() {
+        //given  - precondition or setup
+        Employee savedEmployee = employeeRepository.save(employee);
+        Employee employeeTwo = employeeRepository.save(Employee.builder().firstName("john").lastName("doe").email("john@gmail.com").build());
+        Employee employeeThree = employeeRepository.save(Employee.builder().firstName("jane").lastName("doe").email("jane@gmail.com").build());
+
+        //when - action or the behaviour that we are going to test
+        List<Employee> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(savedEmployee.getId(), PageRequest.of(0, 1));
+        //then - verify the output
+        assertThat(employees).hasSize(1);
+        assertThat(employees.get(0).getId()).isEqualTo(employeeTwo.getId());
+        assertThat(employeeThree.getId()).isGreaterThan(employeeTwo.getId());
+    }
+
+    // junit test for keyset pagination on name
+    @DisplayName("junit test for keyset pagination on name")
+    @Test
+    public void givenEmployeesWithSameName_whenFindByLastNameAndFirstName_thenReturnNextMatchesInIdOrder() {
+        //given  - precondition or setup
+        Employee savedEmployee = employeeRepository.save(employee);
+        Employee employeeTwo = employeeRepository.save(Employee.builder().firstName(employee.getFirstName()).lastName(employee.getLastName()).email("other@gmail.com").build());
+        employeeRepository.save(Employee.builder().firstName("john").lastName(employee.getLastName()).email("john@gmail.com").build());
+
+        //when - action or the behaviour that we are going to test
+        List<Employee> employees = employeeRepository.findByLastNameAndFirstNameAndIdGreaterThanOrderByIdAsc(
+                employee.getLastName(), employee.getFirstName(), savedEmployee.getId(), PageRequest.of(0, 10));
+        //then - verify the output
+        assertThat(employees).extracting(Employee::getId).containsExactly(employeeTwo.getId());
+    }
+
+    // junit test for keyset pagination into views
+    @DisplayName("junit test for keyset pagination into views")
+    @Test
+    public void givenEmployeesList_whenFindViewsByIdGreaterThan_thenReturnUnmanagedViews() {
+        //given  - precondition or setup
+        Employee savedEmployee = employeeRepository.save(employee);
+        Employee employeeTwo = employeeRepository.save(Employee.builder().firstName("john").lastName("doe").email("john@gmail.com").build());
+        employeeRepository.flush();
+        entityManager.clear();
+
+        //when - action or the behaviour that we are going to test
+        List<EmployeeView> views = employeeRepository.findViewsByIdGreaterThan(savedEmployee.getId(), PageRequest.of(0, 10));
+        //then - verify the output
+        assertThat(views).containsExactly(new EmployeeView(employeeTwo.getId(), "john", "doe", "john@gmail.com", 0));
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    // junit test for streaming all employees
+    @DisplayName("junit test for streaming all employees")
+    @Test
+    public void givenEmployeesList_whenStreamAll_thenConsumeEveryEmployee() {
+        //given  - precondition or setup
+        employeeRepository.save(employee);
+        employeeRepository.save(Employee.builder().firstName("john").lastName("doe").email("john@gmail.com").build());
+        employeeRepository.flush();
+
+        //when - action or the behaviour that we are going to test
+        List<Employee> employees = new ArrayList<>();
+        employeeRepository.streamAll(employees::add);
+        //then - verify the output
+        assertThat(employees).hasSize(2);
+        assertThat(employees.get(0).getEmail()).isEqualTo(employee.getEmail());
+    }
+
+    // junit test for unique email constraint
+    @DisplayName("junit test for unique email constraint")
+    @Test
+    public void givenExistingEmail_whenSave_thenThrowsDataIntegrityViolation() {
+        //given  - precondition or setup
+        employeeRepository.save(employee);
+        Employee duplicateEmployee = Employee.builder().firstName("john").lastName("doe").email(employee.getEmail()).build();
+        //when - action or the behaviour that we are going to test
+        //then - verify the output
+        assertThrows(DataIntegrityViolationException.class, () -> employeeRepository.saveAndFlush(duplicateEmployee));
+    }
+
+    // junit test for find employees by emails
+    @DisplayName("junit test for find employees by emails")
+    @Test
+    public void givenEmployeeEmails_whenFindByEmailIn_thenReturnMatchingEmployees() {
+        //given  - precondition or setup
+        employeeRepository.save(employee);
+        employeeRepository.save(Employee.builder().firstName("john").lastName("doe").email("john@gmail.com").build());
+
+        //when - action or the behaviour that we are going to test
+        List<Employee> employees = employeeRepository.findByEmailIn(List.of(employee.getEmail(), "unknown@gmail.com"));
+        //then - verify the output
+        assertThat(employees).hasSize(1);
+        assertThat(employees.get(0).getEmail()).isEqualTo(employee.getEmail());
+    }
+
+    // junit test for batch insert employees
+    @DisplayName("junit test for batch insert employees")
+    @Test
+    public void givenEmployeesList_whenInsertAll_thenAssignGeneratedIds() {
+        //given  - precondition or setup
+        Employee employeeTwo = Employee.builder().firstName("john").lastName("doe").email("john@gmail.com").build();
+
+        //when - action or the behaviour that we are going to test
+        employeeRepository.insertAll(List.of(employee, employeeTwo));
+        //then - verify the output
+        assertThat(employee.getId()).isGreaterThan(0);
+        assertThat(employeeTwo.getId()).isGreaterThan(employee.getId());
+        assertThat(employeeRepository.findById(employeeTwo.getId())).isPresent();
+    }
+
     // junit test for get employee by id
     @DisplayName("junit test for get employee by id")
     @Test
@@ -91,6 +213,20 @@ class EmployeeRepositoryTests {
         assertThat(retrievedEmployee.getId()).isEqualTo(savedEmployee.getId());
     }
 
+    // junit test for loading a batch of employees by id
+    @DisplayName("junit test for loading a batch of employees by id")
+    @Test
+    public void givenEmployeeIds_whenLoadAllById_thenReturnExistingEmployees() {
+        //given  - precondition or setup
+        Employee employeeTwo = Employee.builder().firstName("john").lastName("doe").email("john@gmail.com").build();
+        employeeRepository.save(employee);
+        employeeRepository.save(employeeTwo);
+        //when - action or the behaviour that we are going to test
+        List<Employee> employees = employeeRepository.loadAllById(List.of(employee.getId(), employeeTwo.getId(), employeeTwo.getId() + 1));
+        //then - verify the output
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("test@gmail.com", "john@gmail.com");
+    }
+
 
     // junit test for get employee by email operation
     @DisplayName("junit test for get employee by email operation")
@@ -129,6 +265,37 @@ class EmployeeRepositoryTests {
         assertThat(updatedEmployee.getEmail()).isEqualTo(newEmail);
     }
 
+    // junit test for single statement update employee operation
+    @DisplayName("junit test for single statement update employee operation")
+    @Test
+    public void givenEmployeeVersion_whenUpdateByIdAndVersion_thenOnlyMatchingVersionIsUpdated() {
+        //given  - precondition or setup
+        Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+        long version = savedEmployee.getVersion();
+        //when - action or the behaviour that we are going to test
+        int updatedRows = employeeRepository.updateByIdAndVersion(savedEmployee.getId(), version, "john", "doe", "john@gmail.com");
+        int staleRows = employeeRepository.updateByIdAndVersion(savedEmployee.getId(), version, "jane", "doe", "jane@gmail.com");
+        //then - verify the output
+        assertThat(updatedRows).isEqualTo(1);
+        assertThat(staleRows).isEqualTo(0);
+        Employee updatedEmployee = employeeRepository.findById(savedEmployee.getId()).get();
+        assertThat(updatedEmployee.getFirstName()).isEqualTo("john");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(version + 1);
+    }
+
+    // junit test for version lookups used by conditional GETs
+    @DisplayName("junit test for version lookups used by conditional GETs")
+    @Test
+    public void givenUpdatedEmployee_whenFindVersionById_thenVersionChanges() {
+        //given  - precondition or setup
+        Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+        //when - action or the behaviour that we are going to test
+        employeeRepository.updateById(savedEmployee.getId(), "john", "doe", "john@gmail.com");
+        //then - verify the output
+        assertThat(employeeRepository.findVersionById(savedEmployee.getId())).contains(savedEmployee.getVersion() + 1);
+        assertThat(employeeRepository.findVersionById(savedEmployee.getId() + 1)).isEmpty();
+    }
+
     // junit test for delete employee operation
     @DisplayName("junit test for delete employee operation")
     @Test
@@ -147,6 +314,21 @@ class EmployeeRepositoryTests {
         assertThat(deletedEmployee).isEmpty();
     }
 
+    // junit test for set based delete operation
+    @DisplayName("junit test for set based delete operation")
+    @Test
+    public void givenEmployeeIds_whenDeleteByIdIn_thenRemoveOnlyThoseEmployees() {
+        //given  - precondition or setup
+        Employee savedEmployee = employeeRepository.save(employee);
+        Employee employeeTwo = employeeRepository.save(Employee.builder().firstName("john").lastName("doe").email("john@gmail.com").build());
+        Employee employeeThree = employeeRepository.save(Employee.builder().firstName("jane").lastName("doe").email("jane@gmail.com").build());
+        //when - action or the behaviour that we are going to test
+        int deleted = employeeRepository.deleteByIdIn(List.of(savedEmployee.getId(), employeeTwo.getId(), -1L));
+        //then - verify the output
+        assertThat(deleted).isEqualTo(2);
+        assertThat(employeeRepository.findAll()).extracting(Employee::getId).containsExactly(employeeThree.getId());
+    }
+
     // junit test for  custom query using JPQL with index parameters
     @DisplayName("junit test for custom query using JPQL with index parameters ")
     @Test
@@ -0,0 +1,100 @@
+package com.densoft.springtesting.search;
+
+import com.densoft.springtesting.event.EmployeeChangedEvent;
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeSearchIndexTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @InjectMocks
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    private Employee employee;
+
+    private Employee employeeTwo;
+
+    @BeforeEach
+    public void setUp() {
+        employee = Employee.builder().id(1).firstName("John").lastName("Doe").email("john.doe@gmail.com").build();
+        employeeTwo = Employee.builder().id(2).firstName("Jane").lastName("Smith").email("jane@densoft.com").build();
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            List.of(employee, employeeTwo).forEach(consumer);
+            return null;
+        }).given(employeeRepository).streamAll(any());
+        employeeSearchIndex.build();
+    }
+
+    // junit test for prefix search on names and email
+    @DisplayName("junit test for prefix search on names and email")
+    @Test
+    public void givenIndexedEmployees_whenSearchByPrefix_thenReturnMatchingEmployees() {
+        //given  - precondition or setup
+        //when - action or the behaviour that we are going to test
+        //then - verify the output
+        assertThat(employeeSearchIndex.search("j", 10)).extracting(Employee::getId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(employeeSearchIndex.search("Sm", 10)).extracting(Employee::getId).containsExactly(2L);
+        assertThat(employeeSearchIndex.search("dens", 10)).extracting(Employee::getId).containsExactly(2L);
+        assertThat(employeeSearchIndex.search("john.doe@", 10)).extracting(Employee::getId).containsExactly(1L);
+        assertThat(employeeSearchIndex.search("j do", 10)).extracting(Employee::getId).containsExactly(1L);
+        assertThat(employeeSearchIndex.search("  ", 10)).isEmpty();
+        assertThat(employeeSearchIndex.search("j", 1)).hasSize(1);
+    }
+
+    // junit test for index updates on employee changes
+    @DisplayName("junit test for index updates on employee changes")
+    @Test
+    public void givenEmployeeChangedEvents_whenSearch_thenReflectLatestState() {
+        //given  - precondition or setup
+        Employee renamed = Employee.builder().id(1).firstName("Johnny").lastName("Walker").email("johnny@gmail.com").version(1).build();
+        //when - action or the behaviour that we are going to test
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.updated(renamed));
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(2L));
+        renamed.setLastName("Changed");
+        //then - verify the output
+        assertThat(employeeSearchIndex.search("doe", 10)).isEmpty();
+        assertThat(employeeSearchIndex.search("walk", 10)).extracting(Employee::getId).containsExactly(1L);
+        assertThat(employeeSearchIndex.search("jane", 10)).isEmpty();
+        assertThat(employeeSearchIndex.size()).isEqualTo(1);
+    }
+
+    // junit test for employee changes committed while the index is built
+    @DisplayName("junit test for employee changes committed while the index is built")
+    @Test
+    public void givenChangesDuringBuild_whenBuild_thenStreamedRowsDoNotOverwriteThem() {
+        //given  - precondition or setup
+        Employee renamed = Employee.builder().id(1).firstName("Johnny").lastName("Walker").email("johnny@gmail.com").version(1).build();
+        //the stream read both rows before the update and the delete committed, and hands them over afterwards
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.updated(renamed));
+            employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(2L));
+            List.of(employee, employeeTwo).forEach(consumer);
+            return null;
+        }).given(employeeRepository).streamAll(any());
+        //when - action or the behaviour that we are going to test
+        employeeSearchIndex.build();
+        //then - verify the output
+        assertThat(employeeSearchIndex.search("doe", 10)).isEmpty();
+        assertThat(employeeSearchIndex.search("walk", 10)).extracting(Employee::getId).containsExactly(1L);
+        assertThat(employeeSearchIndex.search("jane", 10)).isEmpty();
+        assertThat(employeeSearchIndex.size()).isEqualTo(1);
+    }
+}
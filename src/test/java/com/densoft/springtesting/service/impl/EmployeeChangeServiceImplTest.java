@@ -0,0 +1,136 @@
+package com.densoft.springtesting.service.impl;
+
+import com.densoft.springtesting.event.EmployeeChangedEvent;
+import com.densoft.springtesting.exception.ChangeOffsetExpiredException;
+import com.densoft.springtesting.model.EmployeeChange;
+import com.densoft.springtesting.model.EmployeeChangePage;
+import com.densoft.springtesting.repository.EmployeeChangeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeChangeServiceImplTest {
+
+    @Mock
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    private EmployeeChangeServiceImpl employeeChangeService;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        employeeChangeService.destroy();
+    }
+
+    // junit test for changes after an offset
+    @DisplayName("junit test for changes after an offset")
+    @Test
+    public void givenRelayedChanges_whenAwaitChanges_thenReturnChangesAfterOffset() {
+        //given  - precondition or setup
+        employeeChangeService = service(Duration.ofMinutes(1));
+        given(employeeChangeRepository.findLastIdCreatedBefore(any())).willReturn(Optional.of(1L));
+        given(employeeChangeRepository.findByIdGreaterThanOrderByIdAsc(eq(1L), any())).willReturn(List.of(change(2), change(3)));
+        given(employeeChangeRepository.findFirstId()).willReturn(Optional.of(1L));
+        given(employeeChangeRepository.findByIdBetweenOrderByIdAsc(eq(2L), eq(3L), any())).willReturn(List.of(change(2), change(3)));
+        //when - action or the behaviour that we are going to test
+        EmployeeChangePage page = employeeChangeService.awaitChanges(1, 10, Duration.ZERO).join();
+        //then - verify the output
+        assertThat(page.getChanges()).extracting(EmployeeChange::getId).containsExactly(2L, 3L);
+        assertThat(page.getOffset()).isEqualTo(3);
+    }
+
+    // junit test for a change that is not committed yet
+    @DisplayName("junit test for a change that is not committed yet")
+    @Test
+    public void givenGapInOffsets_whenRelay_thenHoldBackChangesAfterGap() {
+        //given  - precondition or setup
+        employeeChangeService = service(Duration.ofMinutes(1));
+        given(employeeChangeRepository.findLastIdCreatedBefore(any())).willReturn(Optional.empty());
+        given(employeeChangeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).willReturn(List.of(change(1), change(3)));
+        //when - action or the behaviour that we are going to test
+        int relayed = employeeChangeService.relay();
+        //then - verify the output
+        assertThat(relayed).isEqualTo(1);
+        assertThat(employeeChangeService.getOffset()).isEqualTo(1);
+    }
+
+    // junit test for a change that has been rolled back
+    @DisplayName("junit test for a change that has been rolled back")
+    @Test
+    public void givenGapOlderThanGapTimeout_whenRelay_thenSkipGap() {
+        //given  - precondition or setup
+        employeeChangeService = service(Duration.ZERO);
+        given(employeeChangeRepository.findLastIdCreatedBefore(any())).willReturn(Optional.empty());
+        given(employeeChangeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).willReturn(List.of(change(1), change(3)));
+        //when - action or the behaviour that we are going to test
+        int relayed = employeeChangeService.relay();
+        //then - verify the output
+        assertThat(relayed).isEqualTo(2);
+        assertThat(employeeChangeService.getOffset()).isEqualTo(3);
+    }
+
+    // junit test for a consumer waiting for changes
+    @DisplayName("junit test for a consumer waiting for changes")
+    @Test
+    public void givenWaitingConsumer_whenChangesRelayed_thenCompleteWithNewChanges() {
+        //given  - precondition or setup
+        employeeChangeService = service(Duration.ofMinutes(1));
+        given(employeeChangeRepository.findLastIdCreatedBefore(any())).willReturn(Optional.of(2L));
+        given(employeeChangeRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any())).willReturn(List.of(), List.of(change(3)));
+        CompletableFuture<EmployeeChangePage> page = employeeChangeService.awaitChanges(2, 10, Duration.ofMinutes(1));
+        assertThat(page).isNotDone();
+        //when - action or the behaviour that we are going to test
+        employeeChangeService.relay();
+        //then - verify the output
+        assertThat(page).isCompleted();
+        assertThat(page.join().getChanges()).extracting(EmployeeChange::getId).containsExactly(3L);
+        assertThat(page.join().getOffset()).isEqualTo(3);
+    }
+
+    // junit test for an offset that is no longer retained
+    @DisplayName("junit test for an offset that is no longer retained")
+    @Test
+    public void givenPurgedOffset_whenAwaitChanges_thenThrowsException() {
+        //given  - precondition or setup
+        employeeChangeService = service(Duration.ofMinutes(1));
+        given(employeeChangeRepository.findLastIdCreatedBefore(any())).willReturn(Optional.of(500L));
+        given(employeeChangeRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).willReturn(List.of());
+        given(employeeChangeRepository.findFirstId()).willReturn(Optional.of(100L));
+        //when - action or the behaviour that we are going to test
+        assertThrows(ChangeOffsetExpiredException.class, () -> employeeChangeService.awaitChanges(10, 10, Duration.ZERO));
+    }
+
+    //polls only when the test relays
+    private EmployeeChangeServiceImpl service(Duration gapTimeout) {
+        return new EmployeeChangeServiceImpl(employeeChangeRepository, Duration.ofHours(1), 500, gapTimeout, Duration.ofDays(7));
+    }
+
+    private static EmployeeChange change(long id) {
+        return EmployeeChange.builder()
+                .id(id)
+                .type(EmployeeChangedEvent.Type.UPDATED)
+                .employeeId(1)
+                .firstName("test")
+                .lastName("user")
+                .email("test@gmail.com")
+                .version(id)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
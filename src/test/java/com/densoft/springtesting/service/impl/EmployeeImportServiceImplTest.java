@@ -0,0 +1,214 @@
+package com.densoft.springtesting.service.impl;
+
+import com.densoft.springtesting.exception.InvalidRequestException;
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeeBatchResult;
+import com.densoft.springtesting.model.EmployeeImportReport;
+import com.densoft.springtesting.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeImportServiceImplTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private EmployeeImportServiceImpl employeeImportService;
+
+    private final List<List<Employee>> savedChunks = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        employeeImportService = new EmployeeImportServiceImpl(employeeService, new ObjectMapper(), 2, 100);
+    }
+
+    // junit test for csv import in chunks
+    @DisplayName("junit test for csv import in chunks")
+    @Test
+    public void givenCsvFile_whenImportCsv_thenSaveEmployeesChunkByChunk() throws IOException {
+        //given  - precondition or setup
+        givenSaveEmployeesCreatesAllButDuplicateEmail("taken@gmail.com");
+        String csv = "email,first_name,last_name\n"
+                + "test@gmail.com,test,user\n"
+                + "\"doe, john\"@gmail.com,\"john \"\"jd\"\"\",doe\n"
+                + "\n"
+                + "taken@gmail.com,jane,doe\n"
+                + "bad@gmail.com,\"unterminated,doe\n";
+        //when - action or the behaviour that we are going to test
+        EmployeeImportReport report = employeeImportService.importCsv(stream(csv));
+        //then - verify the output
+        verify(employeeService, times(2)).saveEmployees(anyList());
+        assertThat(savedChunks.get(0)).extracting(Employee::getFirstName).containsExactly("test", "john \"jd\"");
+        assertThat(savedChunks.get(0).get(1).getEmail()).isEqualTo("doe, john@gmail.com");
+        assertThat(report.getRows()).isEqualTo(4);
+        assertThat(report.getCreated()).isEqualTo(2);
+        assertThat(report.getDuplicates()).isEqualTo(1);
+        assertThat(report.getInvalid()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(EmployeeImportReport.RowError::getLine).containsExactly(6L, 5L);
+    }
+
+    // junit test for csv import without required columns
+    @DisplayName("junit test for csv import without required columns")
+    @Test
+    public void givenCsvWithoutEmailColumn_whenImportCsv_thenThrowsException() {
+        //given  - precondition or setup
+        String csv = "firstName,lastName\ntest,user\n";
+        //when - action or the behaviour that we are going to test
+        assertThrows(InvalidRequestException.class, () -> employeeImportService.importCsv(stream(csv)));
+    }
+
+    // junit test for ndjson import
+    @DisplayName("junit test for ndjson import")
+    @Test
+    public void givenNdjsonFile_whenImportNdjson_thenSaveValidLinesAndReportMalformedOnes() throws IOException {
+        //given  - precondition or setup
+        givenSaveEmployeesCreatesAllButDuplicateEmail("taken@gmail.com");
+        String ndjson = "{\"id\":7,\"firstName\":\"test\",\"lastName\":\"user\",\"email\":\"test@gmail.com\"}\n"
+                + "{\"firstName\":\"john\",\n"
+                + "{\"firstName\":\"" + "x".repeat(EmployeeImportServiceImpl.MAX_COLUMN_LENGTH + 1) + "\",\"lastName\":\"doe\",\"email\":\"x@gmail.com\"}\n";
+        //when - action or the behaviour that we are going to test
+        EmployeeImportReport report = employeeImportService.importNdjson(stream(ndjson));
+        //then - verify the output
+        assertThat(savedChunks).hasSize(1);
+        assertThat(savedChunks.get(0).get(0).getId()).isZero();
+        assertThat(report.getRows()).isEqualTo(3);
+        assertThat(report.getCreated()).isEqualTo(1);
+        assertThat(report.getInvalid()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(EmployeeImportReport.RowError::getLine).containsExactly(2L, 3L);
+    }
+
+    // junit test for csv rows with line breaks in quoted fields
+    @DisplayName("junit test for csv rows with line breaks in quoted fields")
+    @Test
+    public void givenQuotedLineBreaks_whenImportCsv_thenRowsSpanLines() throws IOException {
+        //given  - precondition or setup
+        givenSaveEmployeesCreatesAllButDuplicateEmail("taken@gmail.com");
+        String csv = "firstName,lastName,email\r\n"
+                + "\"john\r\njr\",doe,john@gmail.com\r\n"
+                + "jane,doe,taken@gmail.com\r\n";
+        //when - action or the behaviour that we are going to test
+        EmployeeImportReport report = employeeImportService.importCsv(stream(csv));
+        //then - verify the output
+        assertThat(savedChunks.get(0)).extracting(Employee::getFirstName).containsExactly("john\njr", "jane");
+        assertThat(report.getRows()).isEqualTo(2);
+        assertThat(report.getCreated()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(EmployeeImportReport.RowError::getLine).containsExactly(4L);
+    }
+
+    // junit test for lines longer than the maximum
+    @DisplayName("junit test for lines longer than the maximum")
+    @Test
+    public void givenTooLongLines_whenImport_thenRejectThemAndGoOn() throws IOException {
+        //given  - precondition or setup
+        givenSaveEmployeesCreatesAllButDuplicateEmail("taken@gmail.com");
+        String csv = "firstName,lastName,email\n"
+                + "x".repeat(20_000) + ",doe,x@gmail.com\n"
+                + "\"unterminated" + "\n".repeat(200) + "test,user,test@gmail.com\n"
+                + "jane,doe,jane@gmail.com\n";
+        String ndjson = "{\"firstName\":\"" + "x".repeat(20_000) + "\"}\n"
+                + "{\"firstName\":\"test\",\"lastName\":\"user\",\"email\":\"test@gmail.com\"}\n";
+        //when - action or the behaviour that we are going to test
+        EmployeeImportReport csvReport = employeeImportService.importCsv(stream(csv));
+        EmployeeImportReport ndjsonReport = employeeImportService.importNdjson(stream(ndjson));
+        //then - verify the output
+        assertThat(csvReport.getCreated()).isEqualTo(2);
+        assertThat(csvReport.getInvalid()).isEqualTo(2);
+        assertThat(csvReport.getErrors()).extracting(EmployeeImportReport.RowError::getLine).containsExactly(2L, 3L);
+        assertThat(ndjsonReport.getCreated()).isEqualTo(1);
+        assertThat(ndjsonReport.getErrors()).extracting(EmployeeImportReport.RowError::getLine).containsExactly(1L);
+    }
+
+    // junit test for a chunk that fails on a database constraint
+    @DisplayName("junit test for a chunk that fails on a database constraint")
+    @Test
+    public void givenChunkViolatesConstraint_whenImportCsv_thenRetryRowByRow() throws IOException {
+        //given  - precondition or setup
+        //taken@gmail.com was inserted by another request after the email lookup of the chunk
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            if (employees.stream().anyMatch(employee -> "taken@gmail.com".equals(employee.getEmail()))) {
+                throw new DataIntegrityViolationException("could not execute statement", new ConstraintViolationException("Duplicate entry",
+                        new SQLException("Duplicate entry 'taken@gmail.com' for key 'uk_employees_email'"), "employees." + Employee.EMAIL_UNIQUE_CONSTRAINT));
+            }
+            return List.of(new EmployeeBatchResult(0, EmployeeBatchResult.Status.CREATED, employees.get(0), null));
+        });
+        String csv = "firstName,lastName,email\n"
+                + "test,user,test@gmail.com\n"
+                + "jane,doe,taken@gmail.com\n";
+        //when - action or the behaviour that we are going to test
+        EmployeeImportReport report = employeeImportService.importCsv(stream(csv));
+        //then - verify the output
+        verify(employeeService, times(3)).saveEmployees(anyList());
+        assertThat(report.getCreated()).isEqualTo(1);
+        assertThat(report.getDuplicates()).isEqualTo(1);
+        assertThat(report.getErrors()).containsExactly(new EmployeeImportReport.RowError(3, "Employee already exists with given email: taken@gmail.com"));
+    }
+
+    // junit test for a chunk that fails on a constraint other than the unique email
+    @DisplayName("junit test for a chunk that fails on a constraint other than the unique email")
+    @Test
+    public void givenChunkViolatesOtherConstraint_whenImportCsv_thenReportRowInvalid() throws IOException {
+        //given  - precondition or setup
+        //the message names the email, only the constraint name tells what was violated
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            if (employees.stream().anyMatch(employee -> "taken@gmail.com".equals(employee.getEmail()))) {
+                throw new DataIntegrityViolationException("could not execute statement", new ConstraintViolationException("Check failed",
+                        new SQLException("Check constraint failed for 'taken@gmail.com' near uk_employees_email"), "employees.chk_employees_name"));
+            }
+            return List.of(new EmployeeBatchResult(0, EmployeeBatchResult.Status.CREATED, employees.get(0), null));
+        });
+        String csv = "firstName,lastName,email\n"
+                + "test,user,test@gmail.com\n"
+                + "jane,doe,taken@gmail.com\n";
+        //when - action or the behaviour that we are going to test
+        EmployeeImportReport report = employeeImportService.importCsv(stream(csv));
+        //then - verify the output
+        assertThat(report.getCreated()).isEqualTo(1);
+        assertThat(report.getDuplicates()).isZero();
+        assertThat(report.getInvalid()).isEqualTo(1);
+        assertThat(report.getErrors()).containsExactly(new EmployeeImportReport.RowError(3, "Row violates a database constraint"));
+    }
+
+    private void givenSaveEmployeesCreatesAllButDuplicateEmail(String duplicateEmail) {
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = new ArrayList<>(invocation.getArgument(0));
+            savedChunks.add(employees);
+            List<EmployeeBatchResult> results = new ArrayList<>();
+            for (int index = 0; index < employees.size(); index++) {
+                Employee employee = employees.get(index);
+                results.add(duplicateEmail.equals(employee.getEmail())
+                        ? new EmployeeBatchResult(index, EmployeeBatchResult.Status.DUPLICATE, employee, "Employee already exists with given email: " + duplicateEmail)
+                        : new EmployeeBatchResult(index, EmployeeBatchResult.Status.CREATED, employee, null));
+            }
+            return results;
+        });
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
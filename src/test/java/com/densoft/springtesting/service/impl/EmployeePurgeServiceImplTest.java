@@ -0,0 +1,94 @@
+package com.densoft.springtesting.service.impl;
+
+import com.densoft.springtesting.model.PurgeJob;
+import com.densoft.springtesting.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeePurgeServiceImplTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private EmployeePurgeServiceImpl employeePurgeService;
+
+    @BeforeEach
+    public void setUp() {
+        employeePurgeService = new EmployeePurgeServiceImpl(employeeService, 2, Duration.ZERO);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        employeePurgeService.destroy();
+    }
+
+    // junit test for asynchronous purge in chunks
+    @DisplayName("junit test for asynchronous purge in chunks")
+    @Test
+    public void givenEmployeeIds_whenStartPurge_thenDeleteChunksInBackgroundAndReportProgress() throws InterruptedException {
+        //given  - precondition or setup
+        given(employeeService.deleteEmployees(List.of(1L, 2L))).willReturn(2);
+        given(employeeService.deleteEmployees(List.of(3L))).willReturn(0);
+        //when - action or the behaviour that we are going to test
+        PurgeJob job = employeePurgeService.startPurge(List.of(1L, 2L, 3L, 1L));
+        //then - verify the output
+        verify(employeeService, timeout(5000)).deleteEmployees(List.of(3L));
+        PurgeJob finishedJob = awaitFinished(job.getId());
+        assertThat(finishedJob.getStatus()).isEqualTo(PurgeJob.Status.COMPLETED);
+        assertThat(finishedJob.getTotal()).isEqualTo(3);
+        assertThat(finishedJob.getProcessed()).isEqualTo(3);
+        assertThat(finishedJob.getDeleted()).isEqualTo(2);
+    }
+
+    // junit test for failed asynchronous purge
+    @DisplayName("junit test for failed asynchronous purge")
+    @Test
+    public void givenFailingDelete_whenStartPurge_thenJobFails() throws InterruptedException {
+        //given  - precondition or setup
+        given(employeeService.deleteEmployees(List.of(1L, 2L))).willThrow(new IllegalStateException("database unavailable"));
+        //when - action or the behaviour that we are going to test
+        PurgeJob job = employeePurgeService.startPurge(List.of(1L, 2L, 3L));
+        //then - verify the output
+        PurgeJob finishedJob = awaitFinished(job.getId());
+        assertThat(finishedJob.getStatus()).isEqualTo(PurgeJob.Status.FAILED);
+        assertThat(finishedJob.getMessage()).isEqualTo("database unavailable");
+        assertThat(finishedJob.getProcessed()).isZero();
+    }
+
+    // junit test for a purge chunk size that would never advance
+    @DisplayName("junit test for a purge chunk size that would never advance")
+    @Test
+    public void givenZeroChunkSize_whenCreateService_thenThrowsIllegalArgumentException() {
+        //given  - precondition or setup
+        int chunkSize = 0;
+        //when - action or the behaviour that we are going to test
+        //then - verify the output
+        assertThrows(IllegalArgumentException.class, () -> new EmployeePurgeServiceImpl(employeeService, chunkSize, Duration.ZERO));
+    }
+
+    private PurgeJob awaitFinished(String jobId) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            PurgeJob job = employeePurgeService.getPurgeJob(jobId).orElseThrow();
+            if (job.getStatus() == PurgeJob.Status.COMPLETED || job.getStatus() == PurgeJob.Status.FAILED) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("purge " + jobId + " did not finish");
+    }
+}
@@ -0,0 +1,67 @@
+package com.densoft.springtesting.service.impl;
+
+import com.densoft.springtesting.config.MetricsConfig;
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.repository.EmployeeRepository;
+import com.densoft.springtesting.search.EmployeeSearchIndex;
+import com.densoft.springtesting.service.EmployeeChangeService;
+import com.densoft.springtesting.service.EmployeeService;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeServiceImplMetricsTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private EmployeeChangeService employeeChangeService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeService employeeService;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new EmployeeServiceImpl(employeeRepository, new EmployeeSearchIndex(employeeRepository), event -> {},
+                employeeChangeService, transactionManager, new NoOpCacheManager()));
+        proxyFactory.addAspect(new TimedAspect(meterRegistry));
+        employeeService = proxyFactory.getProxy();
+    }
+
+    // junit test for service method timers
+    @DisplayName("junit test for service method timers")
+    @Test
+    public void givenTimedService_whenGetEmployeeById_thenRecordMethodTimer() {
+        //given  - precondition or setup
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(Employee.builder().id(1).build()));
+        //when - action or the behaviour that we are going to test
+        employeeService.getEmployeeById(1L);
+        employeeService.getEmployeeById(1L);
+        //then - verify the output
+        Timer timer = meterRegistry.get(MetricsConfig.SERVICE_TIMER)
+                .tag("method", "getEmployeeById")
+                .timer();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+}
@@ -1,29 +1,52 @@
 package com.densoft.springtesting.service.impl;
 
-import com.densoft.springtesting.exception.ResourceNotFoundException;
+import com.densoft.springtesting.exception.ResourceAlreadyExistsException;
+import com.densoft.springtesting.exception.VersionConflictException;
 import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeeBatchResult;
+import com.densoft.springtesting.model.EmployeePage;
+import com.densoft.springtesting.model.EmployeeView;
+import com.densoft.springtesting.model.EmployeeViewPage;
+import com.densoft.springtesting.event.EmployeeChangedEvent;
 import com.densoft.springtesting.repository.EmployeeRepository;
+import com.densoft.springtesting.search.EmployeeSearchIndex;
+import com.densoft.springtesting.service.EmployeeChangeService;
 import com.densoft.springtesting.service.EmployeeService;
 import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import javax.servlet.http.Cookie;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +54,16 @@ class EmployeeServiceImplTest {
 
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private EmployeeSearchIndex employeeSearchIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private EmployeeChangeService employeeChangeService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private CacheManager cacheManager;
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -55,13 +88,14 @@ class EmployeeServiceImplTest {
         //given  - precondition or setup
 
         //stabbing methods in the mocked object
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
         given(employeeRepository.save(employee)).willReturn(employee);
 
         //when - action or the behaviour that we are going to test
         Employee savedEmployee = employeeService.saveEmployee(employee);
         //then - verify the output
         assertThat(savedEmployee).isNotNull();
+        verify(employeeRepository, never()).findByEmail(any(String.class));
+        verify(eventPublisher).publishEvent(ArgumentMatchers.<EmployeeChangedEvent>argThat(event -> event.getEmployee() == employee));
     }
 
     // junit test for save Employee method throws exception
@@ -69,17 +103,55 @@ class EmployeeServiceImplTest {
     @Test
     public void givenExistingEmail_whenSaveEmployee_thenThrowsException() {
         //given  - precondition or setup
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+        given(employeeRepository.save(employee)).willThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Duplicate entry", new SQLException("Duplicate entry"), "employees." + Employee.EMAIL_UNIQUE_CONSTRAINT)));
         //when - action or the behaviour that we are going to test
-        assertThrows(ResourceNotFoundException.class, () -> {
+        assertThrows(ResourceAlreadyExistsException.class, () -> {
             employeeService.saveEmployee(employee);
         });
 
         //then - verify the output
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).findByEmail(any(String.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    // junit test for save Employee method with other integrity violation
+    @DisplayName("junit test for save Employee method with other integrity violation")
+    @Test
+    public void givenMissingColumn_whenSaveEmployee_thenRethrowsIntegrityViolation() {
+        //given  - precondition or setup
+        given(employeeRepository.save(employee)).willThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Column 'email' cannot be null", new SQLException("Column 'email' cannot be null"), null)));
+        //when - action or the behaviour that we are going to test
+        assertThrows(DataIntegrityViolationException.class, () -> {
+            employeeService.saveEmployee(employee);
+        });
     }
 
 
+    // junit test for batch save employees
+    @DisplayName("junit test for batch save employees")
+    @Test
+    public void givenEmployeesBatch_whenSaveEmployees_thenInsertOnlyNewEmployees() {
+        //given  - precondition or setup
+        Employee newEmployee = Employee.builder().firstName("john").lastName("doe").email("john@gmail.com").build();
+        Employee repeatedEmployee = Employee.builder().firstName("johnny").lastName("doe").email("JOHN@gmail.com").build();
+        Employee invalidEmployee = Employee.builder().firstName("jane").lastName("doe").build();
+        given(employeeRepository.findByEmailIn(Set.of(employee.getEmail(), newEmployee.getEmail(), repeatedEmployee.getEmail())))
+                .willReturn(List.of(employee));
+
+        //when - action or the behaviour that we are going to test
+        List<EmployeeBatchResult> results = employeeService.saveEmployees(List.of(employee, newEmployee, repeatedEmployee, invalidEmployee));
+        //then - verify the output
+        assertThat(results).extracting(EmployeeBatchResult::getStatus).containsExactly(
+                EmployeeBatchResult.Status.DUPLICATE,
+                EmployeeBatchResult.Status.CREATED,
+                EmployeeBatchResult.Status.DUPLICATE,
+                EmployeeBatchResult.Status.INVALID);
+        verify(employeeRepository, times(1)).insertAll(List.of(newEmployee));
+        verify(employeeRepository, never()).findByEmail(any(String.class));
+    }
+
     // junit test for get all employees
     @DisplayName("junit test for get all employees")
     @Test
@@ -109,6 +181,64 @@ class EmployeeServiceImplTest {
         assertThat(employees.size()).isEqualTo(employeeList.size());
     }
 
+    // junit test for keyset paginated employees
+    @DisplayName("junit test for keyset paginated employees")
+    @Test
+    public void givenMoreEmployeesThanLimit_whenGetEmployees_thenReturnPageWithNextCursor() {
+        //given  - precondition or setup
+        Employee employeeTwo = Employee.builder().id(2).firstName("john").lastName("doe").email("john doe").build();
+        Employee employeeThree = Employee.builder().id(3).firstName("jane").lastName("doe").email("jane doe").build();
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 3))).willReturn(List.of(employee, employeeTwo, employeeThree));
+        //when - action or the behaviour that we are going to test
+        EmployeePage page = employeeService.getEmployees(0L, 2);
+        //then - verify the output
+        assertThat(page.getContent()).containsExactly(employee, employeeTwo);
+        assertThat(page.getNextCursor()).isEqualTo(employeeTwo.getId());
+    }
+
+    // junit test for keyset paginated employees last page
+    @DisplayName("junit test for keyset paginated employees last page")
+    @Test
+    public void givenFewerEmployeesThanLimit_whenGetEmployees_thenReturnPageWithoutCursor() {
+        //given  - precondition or setup
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 3))).willReturn(List.of(employee));
+        //when - action or the behaviour that we are going to test
+        EmployeePage page = employeeService.getEmployees(0L, 2);
+        //then - verify the output
+        assertThat(page.getContent()).containsExactly(employee);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    // junit test for keyset paginated employee views
+    @DisplayName("junit test for keyset paginated employee views")
+    @Test
+    public void givenMoreViewsThanLimit_whenGetEmployeeViews_thenReturnPageWithNextCursor() {
+        //given  - precondition or setup
+        EmployeeView view = new EmployeeView(1, "test", "user", "test@gmail.com", 0);
+        EmployeeView viewTwo = new EmployeeView(2, "john", "doe", "john@gmail.com", 0);
+        given(employeeRepository.findViewsByIdGreaterThan(0L, PageRequest.of(0, 2))).willReturn(List.of(view, viewTwo));
+        //when - action or the behaviour that we are going to test
+        EmployeeViewPage page = employeeService.getEmployeeViews(0L, 1);
+        //then - verify the output
+        assertThat(page.getContent()).containsExactly(view);
+        assertThat(page.getNextCursor()).isEqualTo(1L);
+    }
+
+    // junit test for name search employees
+    @DisplayName("junit test for name search employees")
+    @Test
+    public void givenLastNameOnly_whenGetEmployeesByName_thenSearchByLastName() {
+        //given  - precondition or setup
+        Employee employeeTwo = Employee.builder().id(2).firstName("john").lastName("user").email("john@gmail.com").build();
+        given(employeeRepository.findByLastNameAndIdGreaterThanOrderByIdAsc("user", 0L, PageRequest.of(0, 2))).willReturn(List.of(employee, employeeTwo));
+        //when - action or the behaviour that we are going to test
+        EmployeePage page = employeeService.getEmployeesByName("user", null, 0L, 1);
+        //then - verify the output
+        assertThat(page.getContent()).containsExactly(employee);
+        assertThat(page.getNextCursor()).isEqualTo(employee.getId());
+        verify(employeeRepository, never()).findByLastNameAndFirstNameAndIdGreaterThanOrderByIdAsc(any(), any(), anyLong(), any());
+    }
+
     // junit test for get employee by id
     @DisplayName("junit test for get employee by id")
     @Test
@@ -121,6 +251,19 @@ class EmployeeServiceImplTest {
         assertThat(savedEmployee).isNotNull();
     }
 
+    // junit test for get employee version
+    @DisplayName("junit test for get employee version")
+    @Test
+    public void givenEmployeeId_whenGetEmployeeVersion_thenReturnVersionWithoutLoadingEmployee() {
+        //given  - precondition or setup
+        given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(3L));
+        //when - action or the behaviour that we are going to test
+        Optional<Long> version = employeeService.getEmployeeVersion(1L);
+        //then - verify the output
+        assertThat(version).contains(3L);
+        verify(employeeRepository, never()).findById(1L);
+    }
+
     // junit test for update employee 
     @DisplayName("junit test for update employee ")
     @Test
@@ -139,18 +282,170 @@ class EmployeeServiceImplTest {
     }
 
 
+    // junit test for single statement update employee
+    @DisplayName("junit test for single statement update employee")
+    @Test
+    public void givenExpectedVersion_whenUpdateEmployee_thenReturnEmployeeWithNextVersion() {
+        //given  - precondition or setup
+        employee.setVersion(3);
+        given(employeeRepository.updateByIdAndVersion(1L, 3L, "test", "user", "test@gmail.com")).willReturn(1);
+        //when - action or the behaviour that we are going to test
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee, 3L);
+        //then - verify the output
+        assertThat(updatedEmployee).isPresent();
+        assertThat(updatedEmployee.get().getVersion()).isEqualTo(4);
+        verify(employeeRepository, never()).findById(any());
+    }
+
+    // junit test for single statement update employee without expected version
+    @DisplayName("junit test for single statement update employee without expected version")
+    @Test
+    public void givenNoExpectedVersion_whenUpdateEmployee_thenReturnEmployeeWithCurrentVersion() {
+        //given  - precondition or setup
+        given(employeeRepository.updateById(1L, "test", "user", "test@gmail.com")).willReturn(1);
+        given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(5L));
+        //when - action or the behaviour that we are going to test
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee, null);
+        //then - verify the output
+        assertThat(updatedEmployee).isPresent();
+        assertThat(updatedEmployee.get().getEmail()).isEqualTo("test@gmail.com");
+        assertThat(updatedEmployee.get().getVersion()).isEqualTo(5);
+        verify(employeeRepository, never()).findById(any());
+    }
+
+    // junit test for single statement update employee with an email taken by another employee
+    @DisplayName("junit test for single statement update employee with an email taken by another employee")
+    @Test
+    public void givenExistingEmail_whenUpdateEmployee_thenThrowsException() {
+        //given  - precondition or setup
+        given(employeeRepository.updateById(1L, "test", "user", "test@gmail.com")).willThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Duplicate entry", new SQLException("Duplicate entry"), "employees." + Employee.EMAIL_UNIQUE_CONSTRAINT)));
+        //when - action or the behaviour that we are going to test
+        assertThrows(ResourceAlreadyExistsException.class, () -> {
+            employeeService.updateEmployee(1L, employee, null);
+        });
+
+        //then - verify the output
+        verifyNoInteractions(eventPublisher);
+    }
+
+    // junit test for single statement update employee with unknown id
+    @DisplayName("junit test for single statement update employee with unknown id")
+    @Test
+    public void givenUnknownId_whenUpdateEmployee_thenReturnEmpty() {
+        //given  - precondition or setup
+        given(employeeRepository.updateById(1L, "test", "user", "test@gmail.com")).willReturn(0);
+        //when - action or the behaviour that we are going to test
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee, null);
+        //then - verify the output
+        assertThat(updatedEmployee).isEmpty();
+    }
+
+    // junit test for single statement update employee with stale version
+    @DisplayName("junit test for single statement update employee with stale version")
+    @Test
+    public void givenStaleVersion_whenUpdateEmployee_thenThrowsException() {
+        //given  - precondition or setup
+        given(employeeRepository.updateByIdAndVersion(1L, 2L, "test", "user", "test@gmail.com")).willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(true);
+        //when - action or the behaviour that we are going to test
+        assertThrows(VersionConflictException.class, () -> {
+            employeeService.updateEmployee(1L, employee, 2L);
+        });
+    }
+
+    // junit test for employees version
+    @DisplayName("junit test for employees version")
+    @Test
+    public void givenRelayedChanges_whenGetEmployeesVersion_thenReturnChangeOffset() {
+        //given  - precondition or setup
+        given(employeeChangeService.getOffset()).willReturn(42L);
+        //when - action or the behaviour that we are going to test
+        Optional<Long> version = employeeService.getEmployeesVersion();
+        //then - verify the output
+        assertThat(version).contains(42L);
+        verifyNoInteractions(employeeRepository);
+    }
+
+    // junit test for employees version of a client that reads its own writes
+    @DisplayName("junit test for employees version of a client that reads its own writes")
+    @Test
+    public void givenPinnedRequest_whenGetEmployeesVersion_thenReturnEmpty() {
+        //given  - precondition or setup
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("primary-until", Long.toString(System.currentTimeMillis() + 5000)));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        //when - action or the behaviour that we are going to test
+        Optional<Long> version;
+        try {
+            version = employeeService.getEmployeesVersion();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        //then - verify the output
+        assertThat(version).isEmpty();
+        verifyNoInteractions(employeeChangeService);
+    }
+
+    // junit test for search employees
+    @DisplayName("junit test for search employees")
+    @Test
+    public void givenQuery_whenSearchEmployees_thenReturnMatchesFromIndex() {
+        //given  - precondition or setup
+        given(employeeSearchIndex.search("tes", EmployeeServiceImpl.MAX_PAGE_SIZE)).willReturn(List.of(employee));
+        //when - action or the behaviour that we are going to test
+        List<Employee> employees = employeeService.searchEmployees("tes", 5000);
+        //then - verify the output
+        assertThat(employees).containsExactly(employee);
+        verifyNoInteractions(employeeRepository);
+    }
+
+    // junit test for bulk delete employees in chunks
+    @DisplayName("junit test for bulk delete employees in chunks")
+    @Test
+    public void givenMoreIdsThanChunkSize_whenDeleteEmployees_thenDeleteChunkByChunk() {
+        //given  - precondition or setup
+        List<Long> employeeIds = LongStream.rangeClosed(1, EmployeeServiceImpl.DELETE_CHUNK_SIZE + 1).boxed().collect(Collectors.toList());
+        given(employeeRepository.findIdsForUpdate(anyList())).willAnswer(invocation -> new ArrayList<>(invocation.<List<Long>>getArgument(0)));
+        given(employeeRepository.deleteByIdIn(anyList())).willReturn(EmployeeServiceImpl.DELETE_CHUNK_SIZE, 1);
+        //when - action or the behaviour that we are going to test
+        int deleted = employeeService.deleteEmployees(employeeIds);
+        //then - verify the output
+        assertThat(deleted).isEqualTo(employeeIds.size());
+        verify(employeeRepository).deleteByIdIn(employeeIds.subList(0, EmployeeServiceImpl.DELETE_CHUNK_SIZE));
+        verify(employeeRepository).deleteByIdIn(List.of((long) EmployeeServiceImpl.DELETE_CHUNK_SIZE + 1));
+    }
+
     // junit test for delete employee
     @DisplayName("junit test for delete employee ")
     @Test
     public void given_when_then() {
         //given  - precondition or setup
         long employeeId = 1l;
-        willDoNothing().given(employeeRepository).deleteById(employeeId);
+        given(employeeRepository.findIdsForUpdate(List.of(employeeId))).willReturn(List.of(employeeId));
+        given(employeeRepository.deleteByIdIn(List.of(employeeId))).willReturn(1);
         //when - action or the behaviour that we are going to test
         employeeService.deleteEmployee(employeeId);
         //then - verify the output
-        verify(employeeRepository, times(1)).deleteById(employeeId);
+        verify(employeeRepository, times(1)).deleteByIdIn(List.of(employeeId));
+        verify(employeeRepository, never()).deleteById(any());
+        verify(eventPublisher).publishEvent(ArgumentMatchers.<EmployeeChangedEvent>argThat(event -> event.getType() == EmployeeChangedEvent.Type.DELETED));
+
+    }
 
+    // junit test for delete employee with unknown id
+    @DisplayName("junit test for delete employee with unknown id")
+    @Test
+    public void givenUnknownId_whenDeleteEmployees_thenPublishNothing() {
+        //given  - precondition or setup
+        given(employeeRepository.findIdsForUpdate(List.of(1L, 2L))).willReturn(List.of(1L));
+        given(employeeRepository.deleteByIdIn(List.of(1L))).willReturn(1);
+        //when - action or the behaviour that we are going to test
+        int deleted = employeeService.deleteEmployees(List.of(1L, 2L));
+        //then - verify the output
+        assertThat(deleted).isEqualTo(1);
+        verify(eventPublisher, times(1)).publishEvent(ArgumentMatchers.<EmployeeChangedEvent>argThat(event -> event.getId() == 1L));
+        verify(eventPublisher, never()).publishEvent(ArgumentMatchers.<EmployeeChangedEvent>argThat(event -> event.getId() == 2L));
     }
 
 
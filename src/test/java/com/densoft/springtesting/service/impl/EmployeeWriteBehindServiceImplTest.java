@@ -0,0 +1,206 @@
+package com.densoft.springtesting.service.impl;
+
+import com.densoft.springtesting.exception.InvalidRequestException;
+import com.densoft.springtesting.exception.ResourceAlreadyExistsException;
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.EmployeeBatchResult;
+import com.densoft.springtesting.model.WriteBehindCheckpoint;
+import com.densoft.springtesting.repository.WriteBehindCheckpointRepository;
+import com.densoft.springtesting.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeWriteBehindServiceImplTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private WriteBehindCheckpointRepository checkpointRepository;
+
+    @TempDir
+    Path directory;
+
+    private EmployeeWriteBehindServiceImpl writeBehindService;
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (writeBehindService != null) {
+            writeBehindService.destroy();
+        }
+    }
+
+    // junit test for coalesced write-behind flush
+    @DisplayName("junit test for coalesced write-behind flush")
+    @Test
+    public void givenBufferedWrites_whenFlush_thenApplyCreatesAndLastUpdatePerEmployee() {
+        //given  - precondition or setup
+        writeBehindService = newService();
+        Employee employee = Employee.builder().firstName("test").lastName("user").email("test@gmail.com").build();
+        Employee firstUpdate = Employee.builder().firstName("john").lastName("doe").email("john@gmail.com").build();
+        Employee lastUpdate = Employee.builder().firstName("johnny").lastName("doe").email("john@gmail.com").build();
+        given(employeeService.saveEmployees(List.of(employee)))
+                .willReturn(List.of(new EmployeeBatchResult(0, EmployeeBatchResult.Status.CREATED, employee, null)));
+        given(employeeService.updateEmployee(2L, lastUpdate, null)).willReturn(Optional.of(lastUpdate));
+        writeBehindService.saveEmployee(employee);
+        writeBehindService.updateEmployee(2L, firstUpdate);
+        writeBehindService.updateEmployee(2L, lastUpdate);
+        //when - action or the behaviour that we are going to test
+        int flushed = writeBehindService.flush();
+        //then - verify the output
+        assertThat(flushed).isEqualTo(3);
+        assertThat(writeBehindService.flush()).isZero();
+        verify(employeeService).saveEmployees(List.of(employee));
+        verify(employeeService, never()).updateEmployee(2L, firstUpdate, null);
+        verify(employeeService).updateEmployee(2L, lastUpdate, null);
+    }
+
+    // junit test for write-behind replay after a crash
+    @DisplayName("junit test for write-behind replay after a crash")
+    @Test
+    public void givenUnflushedWritesInLog_whenRestart_thenReplayThem() {
+        //given  - precondition or setup
+        Employee employee = Employee.builder().firstName("test").lastName("user").email("test@gmail.com").build();
+        given(employeeService.saveEmployees(List.of(employee)))
+                .willReturn(List.of(new EmployeeBatchResult(0, EmployeeBatchResult.Status.CREATED, employee, null)));
+        //the first instance never flushes, as if the process died
+        newService().saveEmployee(employee);
+        //when - action or the behaviour that we are going to test
+        writeBehindService = newService();
+        int flushed = writeBehindService.flush();
+        //then - verify the output
+        assertThat(flushed).isEqualTo(1);
+        verify(employeeService).saveEmployees(List.of(employee));
+    }
+
+    // junit test for write-behind replay of writes that committed before a crash
+    @DisplayName("junit test for write-behind replay of writes that committed before a crash")
+    @Test
+    public void givenWritesCommittedButNotCheckpointed_whenRestart_thenSkipThem() {
+        //given  - precondition or setup
+        Employee employee = Employee.builder().firstName("test").lastName("user").email("test@gmail.com").build();
+        Employee update = Employee.builder().firstName("test").lastName("user").email("changed@gmail.com").build();
+        given(employeeService.updateEmployee(1L, update, null)).willReturn(Optional.of(update));
+        //the create and its batch checkpoint committed, the process died before the log was checkpointed
+        EmployeeWriteBehindServiceImpl crashedService = newService();
+        crashedService.saveEmployee(employee);
+        crashedService.updateEmployee(1L, update);
+        given(checkpointRepository.findById(anyString())).willReturn(Optional.of(new WriteBehindCheckpoint("log", 1)));
+        //when - action or the behaviour that we are going to test
+        writeBehindService = newService();
+        int flushed = writeBehindService.flush();
+        //then - verify the output
+        assertThat(flushed).isEqualTo(2);
+        verify(employeeService, never()).saveEmployees(anyList());
+        verify(employeeService).updateEmployee(1L, update, null);
+        verify(checkpointRepository).save(argThat(checkpoint -> checkpoint.getAppliedSequence() == 2));
+    }
+
+    // junit test for write-behind flush with a rejected write
+    @DisplayName("junit test for write-behind flush with a rejected write")
+    @Test
+    public void givenRejectedUpdate_whenFlush_thenDropOnlyThatWrite() {
+        //given  - precondition or setup
+        writeBehindService = newService();
+        Employee taken = Employee.builder().firstName("test").lastName("user").email("taken@gmail.com").build();
+        Employee valid = Employee.builder().firstName("john").lastName("doe").email("john@gmail.com").build();
+        given(employeeService.updateEmployee(1L, taken, null)).willThrow(new ResourceAlreadyExistsException("Employee already exists with given email: taken@gmail.com"));
+        given(employeeService.updateEmployee(2L, valid, null)).willReturn(Optional.of(valid));
+        writeBehindService.updateEmployee(1L, taken);
+        writeBehindService.updateEmployee(2L, valid);
+        //when - action or the behaviour that we are going to test
+        int flushed = writeBehindService.flush();
+        //then - verify the output
+        assertThat(flushed).isEqualTo(2);
+        verify(employeeService, times(2)).updateEmployee(1L, taken, null);
+        verify(employeeService).updateEmployee(2L, valid, null);
+    }
+
+    // junit test for write-behind flush in log order
+    @DisplayName("junit test for write-behind flush in log order")
+    @Test
+    public void givenCreateUsingEmailFreedByEarlierUpdate_whenFlush_thenApplyUpdateFirst() {
+        //given  - precondition or setup
+        writeBehindService = newService();
+        Employee renamed = Employee.builder().firstName("john").lastName("doe").email("johnny@gmail.com").build();
+        Employee employee = Employee.builder().firstName("test").lastName("user").email("john@gmail.com").build();
+        given(employeeService.updateEmployee(1L, renamed, null)).willReturn(Optional.of(renamed));
+        given(employeeService.saveEmployees(List.of(employee)))
+                .willReturn(List.of(new EmployeeBatchResult(0, EmployeeBatchResult.Status.CREATED, employee, null)));
+        //employee 1 gives up john@gmail.com before the create takes it
+        writeBehindService.updateEmployee(1L, renamed);
+        writeBehindService.saveEmployee(employee);
+        //when - action or the behaviour that we are going to test
+        int flushed = writeBehindService.flush();
+        //then - verify the output
+        assertThat(flushed).isEqualTo(2);
+        InOrder inOrder = inOrder(employeeService);
+        inOrder.verify(employeeService).updateEmployee(1L, renamed, null);
+        inOrder.verify(employeeService).saveEmployees(List.of(employee));
+    }
+
+    // junit test for write-behind flush while the database is unavailable
+    @DisplayName("junit test for write-behind flush while the database is unavailable")
+    @Test
+    public void givenDatabaseUnavailable_whenFlush_thenKeepWritesForRetry() {
+        //given  - precondition or setup
+        writeBehindService = newService();
+        Employee employee = Employee.builder().firstName("test").lastName("user").email("test@gmail.com").build();
+        given(employeeService.saveEmployees(List.of(employee)))
+                .willThrow(new IllegalStateException("database unavailable"))
+                .willReturn(List.of(new EmployeeBatchResult(0, EmployeeBatchResult.Status.CREATED, employee, null)));
+        writeBehindService.saveEmployee(employee);
+        //when - action or the behaviour that we are going to test
+        assertThatThrownBy(() -> writeBehindService.flush()).isInstanceOf(IllegalStateException.class);
+        //then - verify the output
+        assertThat(writeBehindService.flush()).isEqualTo(1);
+        verify(employeeService, times(2)).saveEmployees(List.of(employee));
+    }
+
+    // junit test for write-behind create without required fields
+    @DisplayName("junit test for write-behind create without required fields")
+    @Test
+    public void givenEmployeeWithoutEmail_whenSaveEmployee_thenThrowsInvalidRequestException() {
+        //given  - precondition or setup
+        writeBehindService = newService();
+        Employee employee = Employee.builder().firstName("test").lastName("user").build();
+        //when - action or the behaviour that we are going to test
+        assertThatThrownBy(() -> writeBehindService.saveEmployee(employee)).isInstanceOf(InvalidRequestException.class);
+        //then - verify the output
+        assertThat(writeBehindService.flush()).isZero();
+    }
+
+    private EmployeeWriteBehindServiceImpl newService() {
+        return new EmployeeWriteBehindServiceImpl(employeeService, transactionManager, checkpointRepository, new ObjectMapper(),
+                directory.resolve("writes.log").toString(), DataSize.ofKilobytes(64), 100, Duration.ofHours(1), Duration.ZERO);
+    }
+}
@@ -0,0 +1,217 @@
+package com.densoft.springtesting.service.impl;
+
+import com.densoft.springtesting.exception.InvalidRequestException;
+import com.densoft.springtesting.exception.ResourceAlreadyExistsException;
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.model.IdempotencyRecord;
+import com.densoft.springtesting.model.IdempotentCreate;
+import com.densoft.springtesting.repository.IdempotencyRecordRepository;
+import com.densoft.springtesting.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentEmployeeServiceImplTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotentEmployeeServiceImpl idempotentEmployeeService;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        idempotentEmployeeService = new IdempotentEmployeeServiceImpl(employeeService, idempotencyRecordRepository,
+                transactionManager, 100, Duration.ofHours(1), false);
+        employee = Employee.builder()
+                .firstName("test")
+                .lastName("user")
+                .email("test@gmail.com")
+                .build();
+    }
+
+    // junit test for retried create with the same idempotency key
+    @DisplayName("junit test for retried create with the same idempotency key")
+    @Test
+    public void givenCreatedKey_whenSaveEmployeeAgain_thenReplayWithoutSecondInsert() {
+        //given  - precondition or setup
+        Employee savedEmployee = Employee.builder().id(1L).firstName("test").lastName("user").email("test@gmail.com").build();
+        given(employeeService.saveEmployee(employee)).willReturn(savedEmployee);
+        IdempotentCreate first = idempotentEmployeeService.saveEmployee("create-1", employee);
+        //when - action or the behaviour that we are going to test
+        IdempotentCreate retry = idempotentEmployeeService.saveEmployee("create-1", copyOf(employee));
+        //then - verify the output
+        assertThat(first.isReplayed()).isFalse();
+        assertThat(retry.isReplayed()).isTrue();
+        assertThat(retry.getEmployee()).isSameAs(savedEmployee);
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
+    // junit test for concurrent creates with the same idempotency key
+    @DisplayName("junit test for concurrent creates with the same idempotency key")
+    @Test
+    public void givenCreateInFlight_whenSaveEmployeeWithSameKey_thenWaitForFirstCreate() throws Exception {
+        //given  - precondition or setup
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Employee savedEmployee = Employee.builder().id(1L).firstName("test").lastName("user").email("test@gmail.com").build();
+        given(employeeService.saveEmployee(employee)).willAnswer(invocation -> {
+            inserting.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return savedEmployee;
+        });
+        CompletableFuture<IdempotentCreate> first = CompletableFuture.supplyAsync(() -> idempotentEmployeeService.saveEmployee("create-1", employee));
+        inserting.await(5, TimeUnit.SECONDS);
+        //when - action or the behaviour that we are going to test
+        CompletableFuture<IdempotentCreate> duplicate = CompletableFuture.supplyAsync(() -> idempotentEmployeeService.saveEmployee("create-1", copyOf(employee)));
+        release.countDown();
+        //then - verify the output
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getEmployee()).isSameAs(savedEmployee);
+        assertThat(first.get(5, TimeUnit.SECONDS).getEmployee()).isSameAs(savedEmployee);
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
+    // junit test for a create in flight while the store is full
+    @DisplayName("junit test for a create in flight while the store is full")
+    @Test
+    public void givenFullStore_whenCreateInFlight_thenDuplicateStillWaitsForIt() throws Exception {
+        //given  - precondition or setup
+        IdempotentEmployeeServiceImpl smallService = new IdempotentEmployeeServiceImpl(employeeService, idempotencyRecordRepository,
+                transactionManager, 1, Duration.ofHours(1), false);
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Employee otherEmployee = Employee.builder().firstName("john").lastName("doe").email("john@gmail.com").build();
+        given(employeeService.saveEmployee(employee)).willAnswer(invocation -> {
+            inserting.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return employee;
+        });
+        given(employeeService.saveEmployee(otherEmployee)).willReturn(otherEmployee);
+        CompletableFuture<IdempotentCreate> first = CompletableFuture.supplyAsync(() -> smallService.saveEmployee("create-1", employee));
+        inserting.await(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 10; i++) {
+            smallService.saveEmployee("other-" + i, otherEmployee);
+        }
+        //when - action or the behaviour that we are going to test
+        CompletableFuture<IdempotentCreate> duplicate = CompletableFuture.supplyAsync(() -> smallService.saveEmployee("create-1", copyOf(employee)));
+        //the duplicate has to arrive while the first create is still in flight
+        Thread.sleep(50);
+        release.countDown();
+        //then - verify the output
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).isReplayed()).isTrue();
+        assertThat(first.get(5, TimeUnit.SECONDS).isReplayed()).isFalse();
+        verify(employeeService, times(1)).saveEmployee(employee);
+    }
+
+    // junit test for a create failing with an error
+    @DisplayName("junit test for a create failing with an error")
+    @Test
+    public void givenCreateFailsWithError_whenSaveEmployeeAgain_thenRunCreateAgain() {
+        //given  - precondition or setup
+        given(employeeService.saveEmployee(employee))
+                .willThrow(new OutOfMemoryError("test"))
+                .willReturn(employee);
+        assertThrows(OutOfMemoryError.class, () -> idempotentEmployeeService.saveEmployee("create-1", employee));
+        //when - action or the behaviour that we are going to test
+        IdempotentCreate retry = idempotentEmployeeService.saveEmployee("create-1", employee);
+        //then - verify the output
+        assertThat(retry.isReplayed()).isFalse();
+        verify(employeeService, times(2)).saveEmployee(employee);
+    }
+
+    // junit test for idempotency key reused for another employee
+    @DisplayName("junit test for idempotency key reused for another employee")
+    @Test
+    public void givenCreatedKey_whenSaveDifferentEmployee_thenThrowsException() {
+        //given  - precondition or setup
+        given(employeeService.saveEmployee(employee)).willReturn(employee);
+        idempotentEmployeeService.saveEmployee("create-1", employee);
+        Employee otherEmployee = Employee.builder().firstName("john").lastName("doe").email("john@gmail.com").build();
+        //when - action or the behaviour that we are going to test
+        assertThrows(InvalidRequestException.class, () -> idempotentEmployeeService.saveEmployee("create-1", otherEmployee));
+        //then - verify the output
+        verify(employeeService, never()).saveEmployee(otherEmployee);
+    }
+
+    // junit test for replayed and retried failures
+    @DisplayName("junit test for replayed and retried failures")
+    @Test
+    public void givenFailedCreate_whenSaveEmployeeAgain_thenReplayConflictButRetryTransientFailure() {
+        //given  - precondition or setup
+        given(employeeService.saveEmployee(employee))
+                .willThrow(new ResourceAlreadyExistsException("Employee already exists with given email: test@gmail.com"))
+                .willThrow(new QueryTimeoutException("timeout"))
+                .willReturn(employee);
+        assertThrows(ResourceAlreadyExistsException.class, () -> idempotentEmployeeService.saveEmployee("conflict", employee));
+        assertThrows(QueryTimeoutException.class, () -> idempotentEmployeeService.saveEmployee("transient", employee));
+        //when - action or the behaviour that we are going to test
+        assertThrows(ResourceAlreadyExistsException.class, () -> idempotentEmployeeService.saveEmployee("conflict", employee));
+        IdempotentCreate retry = idempotentEmployeeService.saveEmployee("transient", employee);
+        //then - verify the output
+        assertThat(retry.isReplayed()).isFalse();
+        verify(employeeService, times(3)).saveEmployee(employee);
+    }
+
+    // junit test for durable idempotency key after a restart
+    @DisplayName("junit test for durable idempotency key after a restart")
+    @Test
+    public void givenDurableKey_whenSaveEmployeeOnRestartedInstance_thenReplayStoredEmployee() {
+        //given  - precondition or setup
+        ArgumentCaptor<IdempotencyRecord> record = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        given(employeeService.saveEmployee(employee)).willAnswer(invocation -> {
+            employee.setId(1L);
+            return employee;
+        });
+        given(idempotencyRecordRepository.saveAndFlush(record.capture())).willAnswer(invocation -> invocation.getArgument(0));
+        durableService().saveEmployee("create-1", employee);
+        given(idempotencyRecordRepository.findById("create-1")).willAnswer(invocation -> Optional.of(record.getValue()));
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+        //when - action or the behaviour that we are going to test
+        IdempotentCreate retry = durableService().saveEmployee("create-1", copyOf(employee));
+        //then - verify the output
+        assertThat(retry.isReplayed()).isTrue();
+        assertThat(retry.getEmployee()).isSameAs(employee);
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
+    private IdempotentEmployeeServiceImpl durableService() {
+        return new IdempotentEmployeeServiceImpl(employeeService, idempotencyRecordRepository, transactionManager,
+                100, Duration.ofHours(1), true);
+    }
+
+    private static Employee copyOf(Employee employee) {
+        return Employee.builder()
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .build();
+    }
+}
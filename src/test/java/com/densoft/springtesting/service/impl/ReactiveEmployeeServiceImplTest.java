@@ -0,0 +1,183 @@
+package com.densoft.springtesting.service.impl;
+
+import com.densoft.springtesting.config.CacheConfig;
+import com.densoft.springtesting.event.EmployeeChangedEvent;
+import com.densoft.springtesting.exception.ResourceAlreadyExistsException;
+import com.densoft.springtesting.model.Employee;
+import com.densoft.springtesting.repository.ReactiveEmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveEmployeeServiceImplTest {
+
+    @Mock
+    private ReactiveEmployeeRepository reactiveEmployeeRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CacheManager cacheManager;
+
+    private ReactiveEmployeeServiceImpl reactiveEmployeeService;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.EMPLOYEES_BY_ID, CacheConfig.EMPLOYEES_BY_EMAIL);
+        reactiveEmployeeService = new ReactiveEmployeeServiceImpl(reactiveEmployeeRepository, eventPublisher, cacheManager);
+        employee = Employee.builder()
+                .id(1)
+                .firstName("test")
+                .lastName("user")
+                .email("test@gmail.com")
+                .build();
+    }
+
+    // junit test for reactive save employee method
+    @DisplayName("junit test for reactive save employee method")
+    @Test
+    public void givenEmployeeObject_whenSaveEmployee_thenEmitSavedEmployee() {
+        //given  - precondition or setup
+        given(reactiveEmployeeRepository.save(employee)).willReturn(Mono.just(employee));
+        //when - action or the behaviour that we are going to test
+        //then - verify the output
+        StepVerifier.create(reactiveEmployeeService.saveEmployee(employee))
+                .expectNext(employee)
+                .verifyComplete();
+    }
+
+    // junit test for reactive save employee method with existing email
+    @DisplayName("junit test for reactive save employee method with existing email")
+    @Test
+    public void givenExistingEmail_whenSaveEmployee_thenEmitError() {
+        //given  - precondition or setup
+        given(reactiveEmployeeRepository.save(employee)).willReturn(Mono.error(
+                new DataIntegrityViolationException("Duplicate entry 'test@gmail.com' for key 'uk_employees_email'")));
+        //when - action or the behaviour that we are going to test
+        //then - verify the output
+        StepVerifier.create(reactiveEmployeeService.saveEmployee(employee))
+                .expectError(ResourceAlreadyExistsException.class)
+                .verify();
+    }
+
+    // junit test for reactive get all employees
+    @DisplayName("junit test for reactive get all employees")
+    @Test
+    public void givenEmployeesList_whenGetAllEmployees_thenEmitEveryEmployee() {
+        //given  - precondition or setup
+        Employee employeeTwo = Employee.builder().id(2).firstName("john").lastName("doe").email("john@gmail.com").build();
+        given(reactiveEmployeeRepository.findAllOrderById()).willReturn(Flux.just(employee, employeeTwo));
+        //when - action or the behaviour that we are going to test
+        //then - verify the output
+        StepVerifier.create(reactiveEmployeeService.getAllEmployees(), 1)
+                .expectNext(employee)
+                .thenRequest(1)
+                .expectNext(employeeTwo)
+                .verifyComplete();
+    }
+
+    // junit test for reactive update employee
+    @DisplayName("junit test for reactive update employee")
+    @Test
+    public void givenEmployeeObject_whenUpdateEmployee_thenEmitUpdatedEmployee() {
+        //given  - precondition or setup
+        Employee current = Employee.builder().id(1).firstName("test").lastName("user").email("old@gmail.com").build();
+        cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID).put(1L, current);
+        cacheManager.getCache(CacheConfig.EMPLOYEES_BY_EMAIL).put("old@gmail.com", current);
+        given(reactiveEmployeeRepository.findById(1L)).willReturn(Mono.just(current), Mono.just(employee));
+        given(reactiveEmployeeRepository.updateById(1L, "test", "user", "test@gmail.com")).willReturn(Mono.just(1));
+        //when - action or the behaviour that we are going to test
+        //then - verify the output
+        StepVerifier.create(reactiveEmployeeService.updateEmployee(1L, employee))
+                .expectNext(employee)
+                .verifyComplete();
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID).get(1L)).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_BY_EMAIL).get("old@gmail.com")).isNull();
+        verify(eventPublisher).publishEvent(any(EmployeeChangedEvent.class));
+    }
+
+    // junit test for reactive update employee with an email another employee has
+    @DisplayName("junit test for reactive update employee with an email another employee has")
+    @Test
+    public void givenExistingEmail_whenUpdateEmployee_thenEmitError() {
+        //given  - precondition or setup
+        Employee current = Employee.builder().id(1).firstName("test").lastName("user").email("old@gmail.com").build();
+        given(reactiveEmployeeRepository.findById(1L)).willReturn(Mono.just(current));
+        given(reactiveEmployeeRepository.updateById(1L, "test", "user", "test@gmail.com")).willReturn(Mono.error(
+                new DataIntegrityViolationException("Duplicate entry 'test@gmail.com' for key 'uk_employees_email'")));
+        //when - action or the behaviour that we are going to test
+        //then - verify the output
+        StepVerifier.create(reactiveEmployeeService.updateEmployee(1L, employee))
+                .expectError(ResourceAlreadyExistsException.class)
+                .verify();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    // junit test for reactive update employee with unknown id
+    @DisplayName("junit test for reactive update employee with unknown id")
+    @Test
+    public void givenUnknownId_whenUpdateEmployee_thenEmitNothing() {
+        //given  - precondition or setup
+        given(reactiveEmployeeRepository.findById(1L)).willReturn(Mono.empty());
+        //when - action or the behaviour that we are going to test
+        //then - verify the output
+        StepVerifier.create(reactiveEmployeeService.updateEmployee(1L, employee))
+                .verifyComplete();
+        verify(reactiveEmployeeRepository, never()).updateById(anyLong(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    // junit test for reactive delete employee
+    @DisplayName("junit test for reactive delete employee")
+    @Test
+    public void givenEmployeeId_whenDeleteEmployee_thenEvictCachesAndPublishDeleted() {
+        //given  - precondition or setup
+        cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID).put(1L, employee);
+        cacheManager.getCache(CacheConfig.EMPLOYEES_BY_EMAIL).put("test@gmail.com", employee);
+        given(reactiveEmployeeRepository.findById(1L)).willReturn(Mono.just(employee));
+        given(reactiveEmployeeRepository.deleteRowById(1L)).willReturn(Mono.just(1));
+        //when - action or the behaviour that we are going to test
+        //then - verify the output
+        StepVerifier.create(reactiveEmployeeService.deleteEmployee(1L))
+                .verifyComplete();
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID).get(1L)).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_BY_EMAIL).get("test@gmail.com")).isNull();
+        verify(eventPublisher).publishEvent(argThat((EmployeeChangedEvent event) ->
+                event.getType() == EmployeeChangedEvent.Type.DELETED && event.getId() == 1L));
+    }
+
+    // junit test for reactive delete employee removed concurrently
+    @DisplayName("junit test for reactive delete employee removed concurrently")
+    @Test
+    public void givenRowAlreadyDeleted_whenDeleteEmployee_thenPublishNothing() {
+        //given  - precondition or setup
+        given(reactiveEmployeeRepository.findById(1L)).willReturn(Mono.just(employee));
+        given(reactiveEmployeeRepository.deleteRowById(1L)).willReturn(Mono.just(0));
+        //when - action or the behaviour that we are going to test
+        //then - verify the output
+        StepVerifier.create(reactiveEmployeeService.deleteEmployee(1L))
+                .verifyComplete();
+        verifyNoInteractions(eventPublisher);
+    }
+}
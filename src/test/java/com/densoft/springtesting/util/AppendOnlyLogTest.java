@@ -0,0 +1,106 @@
+package com.densoft.springtesting.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AppendOnlyLogTest {
+
+    @TempDir
+    Path directory;
+
+    // junit test for records replayed after a restart
+    @DisplayName("junit test for records replayed after a restart")
+    @Test
+    public void givenAppendedRecords_whenReopen_thenReturnRecordsAfterCheckpoint() throws Exception {
+        //given  - precondition or setup
+        Path file = directory.resolve("writes.log");
+        AppendOnlyLog log = new AppendOnlyLog(file, 4096);
+        log.append(bytes("first"), Duration.ZERO);
+        long second = log.append(bytes("second"), Duration.ZERO);
+        log.append(bytes("third"), Duration.ZERO);
+        log.checkpoint(second - 1);
+        log.close();
+        //when - action or the behaviour that we are going to test
+        AppendOnlyLog reopenedLog = new AppendOnlyLog(file, 4096);
+        //then - verify the output
+        assertThat(reopenedLog.getUnappliedRecords()).extracting(record -> new String(record.getPayload(), StandardCharsets.UTF_8))
+                .containsExactly("second", "third");
+        assertThat(reopenedLog.append(bytes("fourth"), Duration.ZERO)).isEqualTo(second + 2);
+        reopenedLog.close();
+    }
+
+    // junit test for stale records after the log started over
+    @DisplayName("junit test for stale records after the log started over")
+    @Test
+    public void givenCheckpointedLogWrittenFromStart_whenReopen_thenIgnoreStaleRecords() throws Exception {
+        //given  - precondition or setup
+        Path file = directory.resolve("writes.log");
+        AppendOnlyLog log = new AppendOnlyLog(file, 4096);
+        log.append(bytes("a long first record"), Duration.ZERO);
+        long second = log.append(bytes("a long second record"), Duration.ZERO);
+        log.checkpoint(second);
+        log.append(bytes("x"), Duration.ZERO);
+        log.close();
+        //when - action or the behaviour that we are going to test
+        AppendOnlyLog reopenedLog = new AppendOnlyLog(file, 4096);
+        //then - verify the output
+        assertThat(reopenedLog.getUnappliedRecords()).extracting(record -> new String(record.getPayload(), StandardCharsets.UTF_8))
+                .containsExactly("x");
+        reopenedLog.close();
+    }
+
+    // junit test for append to a full log
+    @DisplayName("junit test for append to a full log")
+    @Test
+    public void givenFullLog_whenAppend_thenWaitForCheckpoint() throws Exception {
+        //given  - precondition or setup
+        AppendOnlyLog log = new AppendOnlyLog(directory.resolve("writes.log"), 80);
+        long first = log.append(new byte[20], Duration.ZERO);
+        //when - action or the behaviour that we are going to test
+        long rejected = log.append(new byte[20], Duration.ofMillis(10));
+        log.checkpoint(first);
+        long accepted = log.append(new byte[20], Duration.ZERO);
+        //then - verify the output
+        assertThat(rejected).isEqualTo(-1);
+        assertThat(accepted).isEqualTo(first + 1);
+        log.close();
+    }
+
+    // junit test for space freed by a checkpoint before the consumer caught up
+    @DisplayName("junit test for space freed by a checkpoint before the consumer caught up")
+    @Test
+    public void givenPartialCheckpoint_whenAppend_thenWrapAroundIntoFreedSpace() throws Exception {
+        //given  - precondition or setup
+        Path file = directory.resolve("writes.log");
+        AppendOnlyLog log = new AppendOnlyLog(file, 125);
+        log.append(bytes("record-1"), Duration.ZERO);
+        long second = log.append(bytes("record-2"), Duration.ZERO);
+        log.append(bytes("record-3"), Duration.ZERO);
+        long rejected = log.append(bytes("record-4"), Duration.ZERO);
+        //when - action or the behaviour that we are going to test
+        log.checkpoint(second);
+        long accepted = log.append(bytes("record-4"), Duration.ZERO);
+        log.close();
+        AppendOnlyLog reopenedLog = new AppendOnlyLog(file, 125);
+        //then - verify the output
+        assertThat(rejected).isEqualTo(-1);
+        assertThat(accepted).isEqualTo(second + 2);
+        assertThat(reopenedLog.getId()).isEqualTo(log.getId());
+        assertThat(reopenedLog.getUnappliedRecords()).extracting(record -> new String(record.getPayload(), StandardCharsets.UTF_8))
+                .containsExactly("record-3", "record-4");
+        reopenedLog.checkpoint(second + 1);
+        assertThat(reopenedLog.append(bytes("record-5"), Duration.ZERO)).isEqualTo(second + 3);
+        reopenedLog.close();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,138 @@
+package com.densoft.springtesting.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CoalescingLoaderTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final List<Set<Long>> batches = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch loading = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    // junit test for concurrent lookups of the same key
+    @DisplayName("junit test for concurrent lookups of the same key")
+    @Test
+    public void givenLoadInFlight_whenLoadSameKey_thenShareTheLoad() throws Exception {
+        //given  - precondition or setup
+        CoalescingLoader<Long, String> loader = new CoalescingLoader<>(blockingFirstBatch(), Duration.ZERO, 10);
+        CompletableFuture<Optional<String>> first = CompletableFuture.supplyAsync(() -> loader.load(1L), executor);
+        loading.await(5, TimeUnit.SECONDS);
+        //when - action or the behaviour that we are going to test
+        CompletableFuture<Optional<String>> second = CompletableFuture.supplyAsync(() -> loader.load(1L), executor);
+        Thread.sleep(50);
+        release.countDown();
+        //then - verify the output
+        assertThat(first.get(5, TimeUnit.SECONDS)).contains("employee-1");
+        assertThat(second.get(5, TimeUnit.SECONDS)).contains("employee-1");
+        assertThat(batches).containsExactly(Set.of(1L));
+    }
+
+    // junit test for lookups of different keys while a batch is loading
+    @DisplayName("junit test for lookups of different keys while a batch is loading")
+    @Test
+    public void givenLoadInFlight_whenLoadOtherKeys_thenLoadThemInOneBatch() throws Exception {
+        //given  - precondition or setup
+        CoalescingLoader<Long, String> loader = new CoalescingLoader<>(blockingFirstBatch(), Duration.ofMillis(500), 10);
+        CompletableFuture<Optional<String>> first = CompletableFuture.supplyAsync(() -> loader.load(1L), executor);
+        loading.await(5, TimeUnit.SECONDS);
+        //when - action or the behaviour that we are going to test
+        List<CompletableFuture<Optional<String>>> others = List.of(
+                CompletableFuture.supplyAsync(() -> loader.load(2L), executor),
+                CompletableFuture.supplyAsync(() -> loader.load(3L), executor),
+                CompletableFuture.supplyAsync(() -> loader.load(404L), executor));
+        Thread.sleep(100);
+        release.countDown();
+        //then - verify the output
+        assertThat(first.get(5, TimeUnit.SECONDS)).contains("employee-1");
+        assertThat(others.get(0).get(5, TimeUnit.SECONDS)).contains("employee-2");
+        assertThat(others.get(1).get(5, TimeUnit.SECONDS)).contains("employee-3");
+        assertThat(others.get(2).get(5, TimeUnit.SECONDS)).isEmpty();
+        assertThat(batches).containsExactly(Set.of(1L), Set.of(2L, 3L, 404L));
+    }
+
+    // junit test for failed batch load
+    @DisplayName("junit test for failed batch load")
+    @Test
+    public void givenFailingBatchFunction_whenLoad_thenThrowAndLoadAgainNextTime() {
+        //given  - precondition or setup
+        CoalescingLoader<Long, String> loader = new CoalescingLoader<>(keys -> {
+            batches.add(keys);
+            if (batches.size() == 1) {
+                throw new IllegalStateException("database unavailable");
+            }
+            return Map.of(1L, "employee-1");
+        }, Duration.ZERO, 10);
+        //when - action or the behaviour that we are going to test
+        assertThrows(IllegalStateException.class, () -> loader.load(1L));
+        Optional<String> retried = loader.load(1L);
+        //then - verify the output
+        assertThat(retried).contains("employee-1");
+        assertThat(batches).hasSize(2);
+    }
+
+    // junit test for batch load failing with an error
+    @DisplayName("junit test for batch load failing with an error")
+    @Test
+    public void givenBatchFunctionThrowsError_whenLoad_thenThrowAndLoadAgainNextTime() {
+        //given  - precondition or setup
+        CoalescingLoader<Long, String> loader = new CoalescingLoader<>(keys -> {
+            batches.add(keys);
+            if (batches.size() == 1) {
+                throw new StackOverflowError();
+            }
+            return Map.of(1L, "employee-1");
+        }, Duration.ZERO, 10);
+        //when - action or the behaviour that we are going to test
+        assertThrows(StackOverflowError.class, () -> loader.load(1L));
+        Optional<String> retried = loader.load(1L);
+        //then - verify the output
+        assertThat(retried).contains("employee-1");
+        assertThat(batches).hasSize(2);
+    }
+
+    //every key below 100 exists, the first batch waits until the test releases it
+    private Function<Set<Long>, Map<Long, String>> blockingFirstBatch() {
+        return keys -> {
+            batches.add(keys);
+            if (batches.size() == 1) {
+                loading.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return keys.stream()
+                    .filter(key -> key < 100)
+                    .collect(Collectors.toMap(Function.identity(), key -> "employee-" + key));
+        };
+    }
+}